@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * Choix de la propagation nœud par nœud : aucune, Forward Checking, ou FC puis AC-3.
+ * Les nœuds sont groupés par profondeur relative (part des variables encore libres, BUCKETS
+ * tranches de la racine aux feuilles). Pour chaque tranche on mesure ce que rapporte chaque
+ * niveau, en plus du niveau inférieur, et ce qu'il coûte (System.nanoTime) :
+ *  - FC : valeurs retirées et domaines vidés, comparés à aucune propagation ;
+ *  - AC-3, lancé après FC sur le même coup : valeurs et échecs que FC n'a pas vus.
+ * Une valeur retirée ou un échec détecté vaut le sous-arbre qui l'aurait découvert plus bas,
+ * estimé à un nœud par variable libre ; le coût moyen d'un nœud (propagation comprise) est
+ * mesuré pendant la recherche. Un niveau n'est gardé que si son gain dépasse son coût :
+ * AC-3 là où il détecte des échecs tôt, FC ailleurs.
+ *
+ * FC reste le plancher sauf dans la dernière tranche : la propagation n'est semée qu'avec le
+ * dernier coup, une valeur non retirée à un nœud ne l'est donc plus jamais dans son sous-arbre
+ * (domaines trop larges, MRV aveugle). Près des feuilles il reste trop peu de cases pour que
+ * cela coûte, et la propagation peut y être coupée si elle ne paie pas.
+ *
+ * Chaque tranche commence au niveau le plus fort (mesures sans a priori), puis un nœud sur
+ * PROBE_PERIOD essaie le niveau au-dessus du choix courant pour garder les mesures à jour.
+ * Les statistiques sont divisées par deux au-delà de WINDOW appels (poids aux mesures récentes).
+ * Remises à zéro à chaque résolution ; un espace par solveur, donc par thread.
+ */
+public class AdaptivePropagation {
+
+    public static final int NONE = 0;
+    public static final int FC = 1;
+    public static final int AC3 = 2;
+
+    static final int BUCKETS = 16;
+    static final int WARMUP = 8;           // Appels au niveau le plus fort avant de comparer
+    static final int PROBE_PERIOD = 16;    // Un nœud sur PROBE_PERIOD essaie le niveau au-dessus
+    static final double WINDOW = 512;      // Appels au-delà desquels les mesures sont divisées par deux
+
+    // Par tranche et par niveau (FC, AC3) : appels, nanosecondes, valeurs retirées, échecs
+    private final double[] calls = new double[BUCKETS * 2];
+    private final double[] nanos = new double[BUCKETS * 2];
+    private final double[] prunes = new double[BUCKETS * 2];
+    private final double[] wipeouts = new double[BUCKETS * 2];
+    private final int[] decisions = new int[BUCKETS];
+    private final int[] level = new int[BUCKETS];
+
+    // Variables libres à la racine (plus grand nombre vu depuis reset)
+    private int rootFree;
+
+    // Coût d'un nœud hors propagation : temps de recherche et nœuds au dernier choix
+    private double nodeNanos;
+
+    // Décisions par niveau depuis reset (pour les mesures et le diagnostic)
+    public final long[] chosen = new long[3];
+
+    public void reset() {
+        Arrays.fill(calls, 0);
+        Arrays.fill(nanos, 0);
+        Arrays.fill(prunes, 0);
+        Arrays.fill(wipeouts, 0);
+        Arrays.fill(decisions, 0);
+        Arrays.fill(level, AC3);
+        Arrays.fill(chosen, 0);
+        rootFree = 0;
+        nodeNanos = 0;
+    }
+
+    public AdaptivePropagation() {
+        reset();
+    }
+
+    // Tranche de profondeur d'un nœud à 'free' variables libres (0 : racine)
+    public int bucket(int free) {
+        if (free > rootFree) rootFree = free;
+        int b = (int) ((long) (rootFree - free) * BUCKETS / (rootFree + 1));
+        return Math.min(b, BUCKETS - 1);
+    }
+
+    /**
+     * Niveau de propagation du nœud. 'searchNanos' et 'nodes' : temps de recherche (propagation
+     * comprise) et nœuds explorés depuis le début, pour estimer le coût d'un nœud.
+     */
+    public int choose(int bucket, long searchNanos, long nodes) {
+        if (nodes > 0) nodeNanos = (double) searchNanos / nodes;
+        int current = level[bucket];
+        int d = ++decisions[bucket];
+        int pick = current < AC3 && d % PROBE_PERIOD == 0 ? current + 1 : current;
+        chosen[pick]++;
+        return pick;
+    }
+
+    // Mesure d'un appel de FC (gain par rapport à aucune propagation)
+    public void recordFc(int bucket, int free, long ns, long pruned, boolean wipeout) {
+        record(bucket * 2, ns, pruned, wipeout);
+        update(bucket, free);
+    }
+
+    // Mesure d'un appel d'AC-3 lancé après FC (gain au-delà de FC)
+    public void recordAc3(int bucket, int free, long ns, long pruned, boolean wipeout) {
+        record(bucket * 2 + 1, ns, pruned, wipeout);
+        update(bucket, free);
+    }
+
+    private void record(int i, long ns, long pruned, boolean wipeout) {
+        if (calls[i] >= WINDOW) {
+            calls[i] *= 0.5;
+            nanos[i] *= 0.5;
+            prunes[i] *= 0.5;
+            wipeouts[i] *= 0.5;
+        }
+        calls[i]++;
+        nanos[i] += ns;
+        prunes[i] += pruned;
+        if (wipeout) wipeouts[i]++;
+    }
+
+    // Réévalue le niveau de la tranche : le plus fort dont chaque étape paie son coût (FC au
+    // minimum hors de la dernière tranche)
+    private void update(int bucket, int free) {
+        int fc = bucket * 2, ac3 = fc + 1;
+        if (calls[fc] < WARMUP || calls[ac3] < WARMUP) return;
+        if (bucket == BUCKETS - 1 && !pays(fc, free)) level[bucket] = NONE;
+        else level[bucket] = pays(ac3, free) ? AC3 : FC;
+    }
+
+    private boolean pays(int i, int free) {
+        double gain = (prunes[i] + wipeouts[i]) * free * nodeNanos;
+        return gain > nanos[i];
+    }
+
+    // Niveau retenu pour chaque tranche, de la racine aux feuilles (ex. "2 2 2 1 1 1 0 ...")
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < BUCKETS; b++) sb.append(b == 0 ? "" : " ").append(level[b]);
+        return sb.toString();
+    }
+}
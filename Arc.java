@@ -1,4 +0,0 @@
-public class Arc {
-    Coord xi, xj;
-    Arc(Coord xi, Coord xj) { this.xi = xi; this.xj = xj; }
-}
\ No newline at end of file
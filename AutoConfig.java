@@ -0,0 +1,295 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Choix automatique de la configuration du solveur d'après la grille, au lieu de demander
+ * chaque heuristique à l'utilisateur ou de figer des drapeaux par taille.
+ *
+ * Caractéristiques de la grille (Features, un seul passage sur les cases) : taille, densité
+ * d'indices, saturation des compteurs (part moyenne de n/2 atteinte par la valeur la plus
+ * présente de chaque ligne et colonne) et part des cases vides forcées (une valeur y ferait
+ * un triple ou dépasserait n/2).
+ *
+ * La table associe à des points de cet espace la configuration la plus rapide mesurée ; une
+ * grille reçoit celle du point le plus proche (distances normalisées par SCALES). Elle est
+ * apprise hors ligne depuis les CSV de SolverBenchmark (une ligne par configuration et
+ * groupe taille/densité) : par groupe, moins de timeouts d'abord, puis temps moyen le plus
+ * bas. Une table par défaut, apprise sur bench-corpus.txt, est livrée avec le code.
+ *
+ * Usage : java AutoConfig --train bench1.csv[,bench2.csv...] [--out fichier]
+ *         java AutoConfig --features <grille au format compact> [--table fichier]
+ */
+public class AutoConfig {
+
+    // Écart de chaque caractéristique (n, densité, saturation, forcées) valant une unité de distance
+    static final double[] SCALES = {4, 0.1, 0.1, 0.05};
+
+    /**
+     * Table par défaut : "n densité saturation forcées heuristiques", apprise avec
+     *   java SolverBenchmark --warmup 1 --iterations 2 --timeout 1000 --csv auto.csv --configs
+     *     "mrv,fc;mrv,degree,fc;mrv,ac3;mrv,adaptive;mrv,gac;mrv,fc,presolve,deduce;
+     *      mrv,gac,presolve,deduce;wdeg,fc;wdeg,gac,presolve,deduce;mrv,fc,cbj"
+     *   java AutoConfig --train auto.csv
+     */
+    static final String[] DEFAULT_TABLE = {
+        "6 0.25 0.372 0.061 mrv,gac,presolve,deduce",
+        "6 0.40 0.528 0.139 mrv,gac,presolve,deduce",
+        "6 0.55 0.683 0.183 mrv,gac,presolve,deduce",
+        "8 0.25 0.366 0.063 wdeg,gac,presolve,deduce",
+        "8 0.40 0.534 0.128 wdeg,gac,presolve,deduce",
+        "8 0.55 0.691 0.191 wdeg,gac,presolve,deduce",
+        "10 0.25 0.370 0.072 wdeg,gac,presolve,deduce",
+        "10 0.40 0.518 0.118 wdeg,gac,presolve,deduce",
+        "10 0.55 0.676 0.180 wdeg,gac,presolve,deduce",
+        "12 0.25 0.346 0.069 mrv,gac,presolve,deduce",
+        "12 0.40 0.514 0.142 wdeg,gac,presolve,deduce",
+        "12 0.55 0.657 0.197 wdeg,gac,presolve,deduce",
+        "14 0.25 0.334 0.053 mrv,gac,presolve,deduce",
+        "14 0.40 0.496 0.122 wdeg,gac,presolve,deduce",
+        "14 0.55 0.654 0.165 wdeg,gac,presolve,deduce",
+        "16 0.25 0.341 0.073 mrv,gac,presolve,deduce",
+        "16 0.40 0.505 0.145 wdeg,gac,presolve,deduce",
+        "16 0.55 0.652 0.170 mrv,fc,presolve,deduce",
+        "18 0.25 0.327 0.062 wdeg,gac,presolve,deduce",
+        "18 0.40 0.493 0.132 wdeg,gac,presolve,deduce",
+        "18 0.55 0.642 0.166 mrv,fc,presolve,deduce",
+        "20 0.25 0.321 0.085 wdeg,gac,presolve,deduce",
+        "20 0.40 0.488 0.143 wdeg,gac,presolve,deduce",
+        "20 0.55 0.644 0.188 wdeg,gac,presolve,deduce",
+        "22 0.25 0.321 0.077 wdeg,gac,presolve,deduce",
+        "22 0.40 0.482 0.148 wdeg,fc",
+        "22 0.55 0.629 0.162 mrv,fc",
+        "24 0.25 0.321 0.083 mrv,gac",
+        "24 0.40 0.476 0.147 mrv,gac,presolve,deduce",
+        "24 0.55 0.630 0.171 wdeg,fc",
+    };
+
+    /** Caractéristiques bon marché d'une grille (O(n²), aucune recherche). */
+    public static final class Features {
+        public final int n;
+        public final double density;     // Cases données / n²
+        public final double saturation;  // Moyenne sur les 2n lignes de max(#0, #1) / (n/2)
+        public final double forced;      // Cases vides dont une valeur est interdite / n²
+
+        public Features(int n, double density, double saturation, double forced) {
+            this.n = n;
+            this.density = density;
+            this.saturation = saturation;
+            this.forced = forced;
+        }
+
+        public static Features of(BinairoPosition pos) {
+            int n = pos.n, half = n / 2;
+            int empty = pos.emptyCount();
+
+            double sat = 0;
+            for (int i = 0; i < n; i++) {
+                sat += Math.max(pos.rowCount(i, BinairoPosition.ZERO), pos.rowCount(i, BinairoPosition.ONE));
+                sat += Math.max(pos.colCount(i, BinairoPosition.ZERO), pos.colCount(i, BinairoPosition.ONE));
+            }
+
+            int forced = 0;
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    if (!pos.isEmpty(r, c)) continue;
+                    if (blocked(pos, r, c, BinairoPosition.ZERO, half) || blocked(pos, r, c, BinairoPosition.ONE, half)) forced++;
+                }
+            }
+
+            double cells = (double) n * n;
+            return new Features(n, (cells - empty) / cells, sat / (2.0 * n * half), forced / cells);
+        }
+
+        // 'val' en (r, c) ferait-il un triple ou dépasserait-il n/2 dans sa ligne ou sa colonne ?
+        private static boolean blocked(BinairoPosition pos, int r, int c, int val, int half) {
+            if (pos.rowCount(r, val) >= half || pos.colCount(c, val) >= half) return true;
+            return triple(pos.rowWindow(r, c, val)) || triple(pos.colWindow(c, r, val));
+        }
+
+        // Fenêtre k-2..k+2 (bit 2 = la case) : deux voisins égaux d'un côté ou de part et d'autre
+        private static boolean triple(int w) {
+            return (w & 0b00011) == 0b00011 || (w & 0b01010) == 0b01010 || (w & 0b11000) == 0b11000;
+        }
+
+        double[] vector() {
+            return new double[] {n, density, saturation, forced};
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "n=%d densité=%.2f saturation=%.2f forcées=%.3f", n, density, saturation, forced);
+        }
+    }
+
+    // Point de la table : caractéristiques moyennes d'un groupe et sa meilleure configuration
+    private static final class Entry {
+        final double[] point;
+        final String heuristics;
+        final SolverConfig config;
+
+        Entry(double[] point, String heuristics) {
+            this.point = point;
+            this.heuristics = heuristics;
+            this.config = SolverConfig.parse(heuristics);
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private AutoConfig(List<Entry> entries) {
+        if (entries.isEmpty()) throw new IllegalArgumentException("Table de configuration vide");
+        this.entries = entries;
+    }
+
+    public static AutoConfig defaultTable() {
+        return parse(Arrays.asList(DEFAULT_TABLE));
+    }
+
+    public static AutoConfig load(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) lines.add(line);
+        }
+        return parse(lines);
+    }
+
+    // Lignes "n densité saturation forcées heuristiques" ; lignes vides et '#' ignorées
+    private static AutoConfig parse(List<String> lines) {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] tok = line.split("\\s+");
+            if (tok.length != 5) throw new IllegalArgumentException("Ligne de table invalide : " + line);
+            double[] point = new double[4];
+            for (int i = 0; i < 4; i++) point[i] = Double.parseDouble(tok[i]);
+            entries.add(new Entry(point, tok[4]));
+        }
+        return new AutoConfig(entries);
+    }
+
+    // Heuristiques du point de la table le plus proche
+    public String choose(Features f) {
+        return nearest(f).heuristics;
+    }
+
+    // Configuration (sans limites ni mesures) pour cette grille
+    public SolverConfig choose(BinairoPosition pos) {
+        return nearest(Features.of(pos)).config;
+    }
+
+    private Entry nearest(Features f) {
+        double[] v = f.vector();
+        Entry best = null;
+        double bestDist = Double.MAX_VALUE;
+        for (Entry e : entries) {
+            double d = 0;
+            for (int i = 0; i < v.length; i++) {
+                double x = (v[i] - e.point[i]) / SCALES[i];
+                d += x * x;
+            }
+            if (d < bestDist) {
+                bestDist = d;
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    // --- APPRENTISSAGE HORS LIGNE ---
+
+    // Meilleur candidat d'un groupe (n, densité) du CSV
+    private static final class Candidate {
+        double[] point;
+        String heuristics;
+        long timeouts;
+        double avgMs;
+
+        boolean beats(Candidate o) {
+            return timeouts != o.timeouts ? timeouts < o.timeouts : avgMs < o.avgMs;
+        }
+    }
+
+    /**
+     * Apprend la table depuis des CSV de SolverBenchmark (colonnes config, n, density, ...,
+     * avg_ms, ..., timeouts, saturation, forced). Un point par groupe (n, densité).
+     */
+    public static List<String> train(List<File> csvFiles) throws IOException {
+        Map<String, Candidate> best = new TreeMap<>();
+        for (File file : csvFiles) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String header = in.readLine();
+                if (header == null) continue;
+                List<String> cols = Arrays.asList(header.split(","));
+                int iConfig = column(cols, "config"), iN = column(cols, "n"), iDensity = column(cols, "density");
+                int iMs = column(cols, "avg_ms"), iTimeouts = column(cols, "timeouts");
+                int iSat = column(cols, "saturation"), iForced = column(cols, "forced");
+
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().isEmpty()) continue;
+                    String[] tok = line.split(",");
+                    Candidate c = new Candidate();
+                    c.heuristics = tok[iConfig].replace('+', ',');
+                    c.avgMs = Double.parseDouble(tok[iMs]);
+                    c.timeouts = Long.parseLong(tok[iTimeouts]);
+                    c.point = new double[] {Integer.parseInt(tok[iN]), Double.parseDouble(tok[iDensity]),
+                                            Double.parseDouble(tok[iSat]), Double.parseDouble(tok[iForced])};
+                    String group = String.format(Locale.ROOT, "%03d %.2f", (int) c.point[0], c.point[1]);
+                    Candidate cur = best.get(group);
+                    if (cur == null || c.beats(cur)) best.put(group, c);
+                }
+            }
+        }
+
+        List<String> table = new ArrayList<>();
+        for (Candidate c : best.values()) {
+            table.add(String.format(Locale.ROOT, "%d %.2f %.3f %.3f %s",
+                    (int) c.point[0], c.point[1], c.point[2], c.point[3], c.heuristics));
+        }
+        return table;
+    }
+
+    private static int column(List<String> cols, String name) {
+        int i = cols.indexOf(name);
+        if (i < 0) throw new IllegalArgumentException("Colonne absente du CSV : " + name);
+        return i;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<File> csvFiles = new ArrayList<>();
+        String outFile = null;
+        String puzzle = null;
+        String tableFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--train":    for (String f : args[++i].split(",")) csvFiles.add(new File(f)); break;
+                case "--out":      outFile = args[++i]; break;
+                case "--features": puzzle = args[++i]; break;
+                case "--table":    tableFile = args[++i]; break;
+                default:
+                    System.err.println("Option inconnue : " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        if (puzzle != null) {
+            AutoConfig auto = tableFile != null ? load(new File(tableFile)) : defaultTable();
+            Features f = Features.of(BinairoPosition.parse(puzzle));
+            System.out.println(f + " -> " + auto.choose(f));
+            return;
+        }
+        if (csvFiles.isEmpty()) {
+            System.err.println("Usage : java AutoConfig --train bench.csv[,...] [--out fichier] | --features <grille> [--table fichier]");
+            System.exit(2);
+        }
+
+        PrintStream out = outFile != null ? new PrintStream(new FileOutputStream(outFile), true, "UTF-8") : System.out;
+        out.println("# n densité saturation forcées heuristiques");
+        for (String row : train(csvFiles)) out.println(row);
+        if (out != System.out) out.close();
+    }
+}
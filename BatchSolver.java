@@ -0,0 +1,310 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Résolution en lot, sans interaction.
+ * Entrée : une grille par ligne au format compact (n*n caractères '0', '1', '.'),
+ * lignes vides et commentaires '#' ignorés. Sortie, dans l'ordre d'entrée :
+ *   <solution | NO_SOLUTION | TIMEOUT | ERROR message> nodes=<nœuds> ms=<temps>
+ * Avec --metrics, chaque ligne reçoit aussi les mesures détaillées de SolverMetrics
+ * (temps par phase en µs, retours arrière, domaines vidés, élagages FC/AC-3/GAC, cases déduites, profondeur max).
+ *
+ * Lecture en flux : les grilles sont soumises à un pool borné et les résultats attendus
+ * passent par une file bornée, ce qui bloque le lecteur quand l'écriture prend du retard
+ * (mémoire constante quelle que soit la taille du fichier).
+ *
+ * Avec --binary, l'entrée est un fichier au format PuzzleCodec (2 bits par case), lu par
+ * projection mémoire.
+ *
+ * Usage : java BatchSolver [--in fichier] [--binary] [--out fichier] [--threads N]
+ *                          [--heuristics mrv,degree,lcv,fc,ac3,gac,presolve,deduce,cbj,luby,geom,wdeg|auto] [--timeout ms] [--queue N]
+ *                          [--metrics] [--cache N] [--portfolio] [--auto-table fichier]
+ *
+ * Avec --cache N, les N dernières solutions sont gardées (SolutionCache, à symétrie et
+ * échange 0/1 près) : une grille répétée, tournée ou inversée est servie avec nodes=0.
+ *
+ * Avec --portfolio, chaque grille est courue par le portefeuille par défaut (PortfolioSolver,
+ * --heuristics ignoré) et la ligne reçoit winner=<configuration gagnante>. Chaque course occupe
+ * un thread par membre : --threads est alors divisé par le nombre de membres.
+ *
+ * Avec --heuristics auto, la configuration de chaque grille est choisie d'après ses
+ * caractéristiques (AutoConfig, table par défaut ou --auto-table fichier) et la ligne reçoit
+ * config=<heuristiques choisies>.
+ */
+public class BatchSolver {
+
+    private String heuristics = "mrv,fc";
+    private Long timeLimitMs = null;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueSize = 1024;
+    private boolean metrics = false;
+    private SolutionCache cache = null;
+    private boolean portfolio = false;
+    private AutoConfig auto = null;     // --heuristics auto : table de choix par grille
+    private String autoTable = null;
+
+    // Configuration commune, un moteur par worker réutilisé (JIT et espaces de travail chauds) ;
+    // créé au lancement du lot, une fois les options lues
+    private SharedSolver solver;
+
+    // Levé si l'écrivain échoue : les résolutions en cours s'arrêtent en quelques nœuds
+    private final AtomicBoolean aborted = new AtomicBoolean();
+
+    // --heuristics auto : un solveur partagé par configuration choisie, créé au premier besoin
+    // (clé : l'instance de la table, la même pour toutes les grilles qui la reçoivent)
+    private final Map<SolverConfig, SharedSolver> autoSolvers = new ConcurrentHashMap<>();
+
+    // --portfolio : un portefeuille par worker (chacun avec un thread par membre), créés au
+    // lancement du lot et fermés à sa fin ; une grille en emprunte un le temps de sa course
+    private BlockingQueue<PortfolioSolver> portfolios;
+
+    public static void main(String[] args) throws Exception {
+        BatchSolver batch = new BatchSolver();
+        String inFile = null;
+        boolean binary = false;
+        OutputStream out = System.out;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--in":         inFile = args[++i]; break;
+                case "--binary":     binary = true; break;
+                case "--out":        out = new FileOutputStream(args[++i]); break;
+                case "--threads":    batch.threads = Integer.parseInt(args[++i]); break;
+                case "--heuristics": batch.heuristics = args[++i]; break;
+                case "--timeout":    batch.timeLimitMs = Long.parseLong(args[++i]); break;
+                case "--queue":      batch.queueSize = Integer.parseInt(args[++i]); break;
+                case "--metrics":    batch.metrics = true; break;
+                case "--cache":      batch.cache = new SolutionCache(Integer.parseInt(args[++i])); break;
+                case "--portfolio":  batch.portfolio = true; break;
+                case "--auto-table": batch.autoTable = args[++i]; break;
+                default:
+                    System.err.println("Option inconnue : " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        try {
+            if (batch.heuristics.equalsIgnoreCase("auto")) {
+                batch.auto = batch.autoTable != null ? AutoConfig.load(new File(batch.autoTable)) : AutoConfig.defaultTable();
+            } else {
+                SolverConfig.parse(batch.heuristics);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+
+        if (binary && inFile == null) {
+            System.err.println("--binary exige --in (le fichier est projeté en mémoire)");
+            System.exit(2);
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+            if (binary) {
+                try (PuzzleCodec.Reader reader = new PuzzleCodec.Reader(Paths.get(inFile))) {
+                    batch.run(reader, writer);
+                }
+            } else {
+                InputStream in = inFile == null ? System.in : new FileInputStream(inFile);
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    batch.run(reader, writer);
+                }
+            }
+        }
+    }
+
+    // Configuration des workers d'après les options
+    private SolverConfig config() {
+        return config(SolverConfig.parse(auto != null ? "mrv,fc" : heuristics));
+    }
+
+    private SolverConfig config(SolverConfig heuristics) {
+        return heuristics.toBuilder().timeLimitMs(timeLimitMs).metrics(metrics).build();
+    }
+
+    // Entrée texte : une grille par ligne
+    public void run(BufferedReader reader, Writer writer) throws IOException, InterruptedException {
+        pipeline(writer, tasks -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String puzzle = line.trim();
+                if (puzzle.isEmpty() || puzzle.startsWith("#")) continue;
+                tasks.submit(() -> solveLine(puzzle));
+            }
+        });
+    }
+
+    // Entrée binaire : enregistrements décodés depuis le fichier projeté en mémoire
+    public void run(PuzzleCodec.Reader reader, Writer writer) throws IOException, InterruptedException {
+        pipeline(writer, tasks -> {
+            while (reader.hasNext()) {
+                BinairoPosition pos;
+                try {
+                    pos = reader.next();
+                } catch (IllegalArgumentException e) {
+                    String error = "ERROR " + e.getMessage() + " nodes=0 ms=0";
+                    tasks.submit(() -> error);
+                    continue;
+                }
+                tasks.submit(() -> solvePosition(pos));
+            }
+        });
+    }
+
+    private interface TaskSink {
+        void submit(Callable<String> task) throws InterruptedException;
+    }
+
+    private interface Producer {
+        void produce(TaskSink tasks) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Si l'écrivain échoue (sortie pleine, fermée...), le lecteur est interrompu, les grilles en
+     * attente sont abandonnées et l'échec est relancé : le lot s'arrête au lieu d'attendre
+     * indéfiniment une file que plus personne ne vide.
+     */
+    private void pipeline(Writer writer, Producer producer) throws IOException, InterruptedException {
+        solver = new SharedSolver(config(), cache);
+        int workers = portfolio ? PortfolioSolver.racesFor(threads, PortfolioSolver.defaultConfigs(timeLimitMs).size()) : threads;
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        if (portfolio) {
+            portfolios = new ArrayBlockingQueue<>(workers);
+            for (int i = 0; i < workers; i++) {
+                portfolios.add(new PortfolioSolver(PortfolioSolver.defaultConfigs(timeLimitMs), System.nanoTime(), cache));
+            }
+        }
+        BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<>(queueSize);
+        Future<String> endOfInput = CompletableFuture.completedFuture(null);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producerThread = Thread.currentThread();
+
+        // Écrivain : consomme les résultats dans l'ordre de soumission
+        Thread writerThread = new Thread(() -> {
+            try {
+                while (true) {
+                    Future<String> f = pending.take();
+                    if (f == endOfInput) break;
+                    writer.write(f.get());
+                    writer.write('\n');
+                }
+                writer.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | IOException | RuntimeException e) {
+                failure.set(e);
+                aborted.set(true);
+                producerThread.interrupt();
+            }
+        }, "batch-writer");
+        writerThread.start();
+
+        boolean interrupted = false;
+        try {
+            // put bloque si l'écrivain est en retard : c'est la contre-pression du lot
+            producer.produce(task -> pending.put(pool.submit(() -> guarded(task))));
+        } catch (InterruptedException e) {
+            if (failure.get() == null) throw e;
+        } finally {
+            // Marque de fin, abandonnée si l'écrivain est tombé (plus personne ne vide la file)
+            while (failure.get() == null) {
+                try {
+                    if (pending.offer(endOfInput, 100, TimeUnit.MILLISECONDS)) break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            while (writerThread.isAlive()) {
+                try {
+                    writerThread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (failure.get() != null) pool.shutdownNow(); else pool.shutdown();
+            // Portefeuilles fermés une fois le dernier worker terminé (aucune course en cours)
+            while (!pool.isTerminated()) {
+                try {
+                    pool.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (portfolios != null) {
+                for (PortfolioSolver race : portfolios) race.close();
+                portfolios = null;
+            }
+        }
+        if (failure.get() != null) throw new IOException("Échec d'écriture du lot", failure.get());
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // Une grille qui fait échouer son solveur donne une ligne ERROR, le lot continue
+    private static String guarded(Callable<String> task) {
+        try {
+            return task.call();
+        } catch (Throwable e) {
+            return "ERROR " + e + " nodes=0 ms=0";
+        }
+    }
+
+    private String solveLine(String line) throws InterruptedException {
+        BinairoPosition pos;
+        try {
+            pos = BinairoPosition.parse(line);
+        } catch (IllegalArgumentException e) {
+            return "ERROR " + e.getMessage() + " nodes=0 ms=0";
+        }
+        return solvePosition(pos);
+    }
+
+    private String solvePosition(BinairoPosition pos) throws InterruptedException {
+        long t0 = System.nanoTime();
+        PortfolioSolver.Result race = portfolio ? race(pos) : null;
+        SolverConfig chosen = race == null && auto != null ? auto.choose(pos) : null;
+        SolveResult r = race != null ? race.result
+                      : chosen != null ? autoSolvers.computeIfAbsent(chosen, c -> new SharedSolver(config(c), cache)).solve(pos, aborted)
+                      : solver.solve(pos, aborted);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+
+        String status = r.solution != null ? ((BinairoPosition) r.solution).toLine()
+                      : r.interrupted ? "TIMEOUT" : "NO_SOLUTION";
+        String line = status + " nodes=" + r.nodeCount + " ms=" + ms;
+        if (race != null) line += " winner=" + race.winnerName();
+        if (chosen != null) line += " config=" + chosen;
+        return r.metrics == null ? line : line + formatMetrics(r.metrics);
+    }
+
+    // Autant de portefeuilles que de workers : take ne bloque jamais
+    private PortfolioSolver.Result race(BinairoPosition pos) throws InterruptedException {
+        PortfolioSolver race = portfolios.take();
+        try {
+            return race.solve(pos, aborted);
+        } finally {
+            portfolios.add(race);
+        }
+    }
+
+    private static String formatMetrics(SolverMetrics.Snapshot s) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < SolverMetrics.PHASE_NAMES.length; i++) {
+            sb.append(' ').append(SolverMetrics.PHASE_NAMES[i]).append("_us=").append(s.phaseNanos(i) / 1000);
+        }
+        return sb.append(" backtracks=").append(s.backtracks)
+                 .append(" wipeouts=").append(s.wipeouts)
+                 .append(" fc_prunes=").append(s.fcPrunes)
+                 .append(" ac3_prunes=").append(s.ac3Prunes)
+                 .append(" gac_prunes=").append(s.gacPrunes)
+                 .append(" deduced=").append(s.deductions)
+                 .append(" backjumps=").append(s.backjumps)
+                 .append(" nogoods=").append(s.nogoods)
+                 .append(" restarts=").append(s.restarts)
+                 .append(" max_depth=").append(s.maxDepth)
+                 .toString();
+    }
+}
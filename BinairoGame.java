@@ -1,9 +1,33 @@
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class BinairoGame extends CSPSolver {
 
     public static Scanner scanner = new Scanner(System.in);
 
+    // Source d'aléa du mélange des valeurs (remplaçable pour une génération reproductible)
+    public Random random = new Random();
+
+    // Solutions déjà calculées, à symétrie et échange 0/1 près (null = pas de cache)
+    public SolutionCache solutionCache = null;
+    public boolean cacheHit = false;    // Dernier solveCached servi par le cache
+
+    // dom/wdeg : poids des contraintes, augmenté à chaque domaine vidé (ou ligne sans motif)
+    // qu'elles provoquent. Lignes 0..n-1, colonnes n..2n-1, unicité des lignes 2n et des
+    // colonnes 2n+1. Remis à 1 par prepare, gardés d'un redémarrage à l'autre
+    public int[] constraintWeights = null;
+
+    public BinairoGame() {
+    }
+
+    // Solveur déjà configuré (heuristiques, propagation, limites)
+    public BinairoGame(SolverConfig config) {
+        configure(config);
+    }
+
     // =========================================================================
     // I. IMPLÉMENTATION DES MÉTHODES ABSTRAITES DE CSPSOLVER
     // =========================================================================
@@ -11,23 +35,24 @@ public class BinairoGame extends CSPSolver {
     @Override
     public boolean isComplete(Position p) {
         BinairoPosition pos = (BinairoPosition) p;
-        // Vérification rapide : plus de cases vides
-        for (int i = 0; i < pos.n; i++) {
-            for (int j = 0; j < pos.n; j++) {
-                if (pos.board[i][j] == BinairoPosition.EMPTY) return false;
-            }
-        }
-        // Vérification lourde finale (Unicité des lignes/colonnes)
+        // Vérification rapide : plus de cases vides (seau "lignes avec case vide" à zéro)
+        if (!pos.isFull()) return false;
+        // Unicité des lignes/colonnes : compteur de doublons tenu à jour par les LineSet
         return checkUniqueRowsCols(pos);
     }
 
+    @Override
+    public int unassignedCount(Position p) {
+        return ((BinairoPosition) p).emptyCount();
+    }
+
     @Override
     public List<Move> getUnassignedVariables(Position p) {
         BinairoPosition pos = (BinairoPosition) p;
         List<Move> moves = new ArrayList<>();
         for (int i = 0; i < pos.n; i++) {
             for (int j = 0; j < pos.n; j++) {
-                if (pos.board[i][j] == BinairoPosition.EMPTY) {
+                if (pos.isEmpty(i, j)) {
                     moves.add(new BinairoMove(i, j, -1));
                 }
             }
@@ -51,22 +76,218 @@ public class BinairoGame extends CSPSolver {
         // Copie Profonde
         BinairoPosition copy = new BinairoPosition(original);
         
-        // Application du coup
-        copy.board[m.row][m.col] = m.value;
-        // Mise à jour des compteurs
-        if (m.value == 0) { copy.rowZeroCount[m.row]++; copy.colZeroCount[m.col]++; }
-        else { copy.rowOneCount[m.row]++; copy.colOneCount[m.col]++; }
-        
+        // Application du coup (les compteurs de parité découlent des bitboards)
         // Mise à jour du domaine : la variable assignée n'a plus qu'une seule valeur possible
-        copy.setDomainSingle(m.row, m.col, m.value);
+        if (copy.lineReason != null) copy.markDecision(m.row, m.col, decisionLevel);
+        copy.assign(m.row, m.col, m.value);
 
         return copy;
     }
 
+    @Override
+    public Position copyPosition(Position p) {
+        return new BinairoPosition((BinairoPosition) p);
+    }
+
+    @Override
+    protected CSPSolver newInstance() {
+        return new BinairoGame();
+    }
+
+    // Chaque worker tire sa graine du générateur du parent : un parent semé donne des workers semés
+    @Override
+    protected CSPSolver forkSolver() {
+        BinairoGame s = (BinairoGame) super.forkSolver();
+        s.random = new Random(random.nextLong());
+        return s;
+    }
+
+    @Override
+    public int saveState(Position p) {
+        BinairoPosition pos = (BinairoPosition) p;
+        pos.enableTrail();
+        return pos.trailMark();
+    }
+
+    @Override
+    public void restoreState(Position p, int mark) {
+        ((BinairoPosition) p).undoTo(mark);
+    }
+
+    @Override
+    public Position applyMoveInPlace(Position p, Move move) {
+        BinairoPosition pos = (BinairoPosition) p;
+        BinairoMove m = (BinairoMove) move;
+        // Aucune allocation : le coup est empilé sur le trail et sera dépilé au backtrack
+        if (pos.lineReason != null) pos.markDecision(m.row, m.col, decisionLevel);
+        pos.assign(m.row, m.col, m.value);
+        return pos;
+    }
+
     // =========================================================================
     // II. HEURISTIQUES AVANCÉES 
     // =========================================================================
 
+    /**
+     * MRV / Degree sans balayage de la grille ni liste de variables :
+     * les seaux (domaine vide, singleton, toutes les cases vides) sont tenus à jour par
+     * BinairoPosition à chaque coup et à chaque annulation. On descend directement dans le
+     * premier seau non vide ; le degré d'une case vide se lit en O(1) par popcount.
+     * Sans Degree, le choix est en O(1) (première case du seau). Avec Degree, il reste linéaire
+     * dans la taille du seau (toutes les cases vides quand aucun singleton n'existe) : seules
+     * les lignes qui ne peuvent pas atteindre le meilleur degré courant sont sautées.
+     * Même choix que CSPSolver.selectVariable : première case en ordre ligne-major parmi les meilleures.
+     */
+    @Override
+    protected Move selectVariable(Position p) {
+        int cell = selectCell(p);
+        return cell < 0 ? null : new BinairoMove(cell >>> 16, cell & 0xFFFF, -1);
+    }
+
+    // Même choix que selectVariable, sans allocation : (row << 16) | col, ou -1
+    @Override
+    protected int selectCell(Position p) {
+        BinairoPosition pos = (BinairoPosition) p;
+        if (BinairoPosition.nextSetBit(pos.rowsWithEmpty, 0) < 0) return -1;
+
+        // Seau MRV : le plus petit domaine non vide l'emporte
+        int bucket = BUCKET_EMPTY;
+        long[] rows = pos.rowsWithEmpty;
+        if (useMRV || useWdeg) {
+            if (BinairoPosition.nextSetBit(pos.rowsWithWipeout, 0) >= 0) {
+                bucket = BUCKET_WIPEOUT;
+                rows = pos.rowsWithWipeout;
+            } else if (BinairoPosition.nextSetBit(pos.rowsWithSingle, 0) >= 0) {
+                bucket = BUCKET_SINGLE;
+                rows = pos.rowsWithSingle;
+            }
+        }
+
+        // Redémarrages : chaque essai doit explorer un autre arbre, les ex aequo sont tirés au sort
+        boolean randomTies = randomizeTies || restartStrategy != RESTART_NONE;
+        // Domaine vide : échec immédiat, quel que soit le poids
+        if (useWdeg && bucket != BUCKET_WIPEOUT) return selectWdeg(pos, randomTies);
+        if (randomTies && !useDegree) return randomCell(pos, bucket, rows);
+
+        // Plus grand nombre de cases vides d'une colonne : borne du degré atteignable par ligne
+        int maxColEmpty = 0;
+        if (useDegree) {
+            for (int c = 0; c < pos.n; c++) maxColEmpty = Math.max(maxColEmpty, pos.colEmptyCount(c));
+        }
+
+        int bestRow = -1, bestCol = -1, maxDegree = -1, ties = 0;
+        for (int r = BinairoPosition.nextSetBit(rows, 0); r >= 0; r = BinairoPosition.nextSetBit(rows, r + 1)) {
+            int rowEmpty = pos.rowEmptyCount(r);
+            // Ligne incapable de battre (ou d'égaler, si les ex aequo sont tirés) le meilleur degré
+            int bound = rowEmpty + maxColEmpty - 2;
+            if (useDegree && (bound < maxDegree || (!randomTies && bound == maxDegree))) continue;
+            for (int w = 0; w < pos.words; w++) {
+                long cells = bucketMask(pos, bucket, r, w);
+                while (cells != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(cells);
+                    cells &= cells - 1;
+                    // Sans Degree, la première case du seau suffit
+                    if (!useDegree) return (r << 16) | c;
+                    // Degré = voisins vides de ligne et de colonne (la case elle-même exclue)
+                    int degree = rowEmpty + pos.colEmptyCount(c) - 2;
+                    if (degree > maxDegree) {
+                        maxDegree = degree;
+                        bestRow = r;
+                        bestCol = c;
+                        ties = 1;
+                    } else if (randomTies && degree == maxDegree && random.nextInt(++ties) == 0) {
+                        // Tirage par réservoir : chaque ex aequo a la même probabilité
+                        bestRow = r;
+                        bestCol = c;
+                    }
+                }
+            }
+        }
+        return bestRow < 0 ? -1 : (bestRow << 16) | bestCol;
+    }
+
+    /**
+     * dom/wdeg : case vide de plus petit rapport taille du domaine / poids pondéré, où le poids
+     * d'une case est la somme des poids de sa ligne et de sa colonne (si elles ont d'autres
+     * cases vides) et de l'unicité de chacune quand elle a au plus 2 cases vides (seul cas où
+     * la règle élague). Rapports comparés par produits croisés, sans division.
+     */
+    private int selectWdeg(BinairoPosition pos, boolean randomTies) {
+        int n = pos.n;
+        int[] w = weights(n);
+        int bestRow = -1, bestCol = -1, bestDom = 1, bestWeight = 0, ties = 0;
+        for (int r = BinairoPosition.nextSetBit(pos.rowsWithEmpty, 0); r >= 0; r = BinairoPosition.nextSetBit(pos.rowsWithEmpty, r + 1)) {
+            int rowEmpty = pos.rowEmptyCount(r);
+            int rowWeight = (rowEmpty > 1 ? w[r] : 0) + (rowEmpty <= 2 ? w[2 * n] : 0);
+            for (int word = 0; word < pos.words; word++) {
+                for (long cells = pos.emptyMask(r, word); cells != 0; cells &= cells - 1) {
+                    int c = (word << 6) + Long.numberOfTrailingZeros(cells);
+                    int colEmpty = pos.colEmptyCount(c);
+                    int weight = Math.max(1, rowWeight + (colEmpty > 1 ? w[n + c] : 0) + (colEmpty <= 2 ? w[2 * n + 1] : 0));
+                    int dom = pos.getDomainSize(r, c);
+                    // dom / weight < bestDom / bestWeight
+                    long cmp = (long) dom * bestWeight - (long) bestDom * weight;
+                    if (bestRow < 0 || cmp < 0) {
+                        bestRow = r;
+                        bestCol = c;
+                        bestDom = dom;
+                        bestWeight = weight;
+                        ties = 1;
+                    } else if (randomTies && cmp == 0 && random.nextInt(++ties) == 0) {
+                        bestRow = r;
+                        bestCol = c;
+                    }
+                }
+            }
+        }
+        return bestRow < 0 ? -1 : (bestRow << 16) | bestCol;
+    }
+
+    // Poids des contraintes, alloués à 1 au premier besoin (ou si la taille a changé)
+    private int[] weights(int n) {
+        if (constraintWeights == null || constraintWeights.length != 2 * n + 2) {
+            constraintWeights = new int[2 * n + 2];
+            Arrays.fill(constraintWeights, 1);
+        }
+        return constraintWeights;
+    }
+
+    // La contrainte 'constraint' vient de provoquer un échec
+    private void bumpWeight(int n, int constraint) {
+        if (useWdeg && constraint >= 0) weights(n)[constraint]++;
+    }
+
+    // Case tirée uniformément dans le seau MRV (lignes 'rows') : compte, puis k-ième case
+    private int randomCell(BinairoPosition pos, int bucket, long[] rows) {
+        int total = 0;
+        for (int r = BinairoPosition.nextSetBit(rows, 0); r >= 0; r = BinairoPosition.nextSetBit(rows, r + 1)) {
+            for (int w = 0; w < pos.words; w++) total += Long.bitCount(bucketMask(pos, bucket, r, w));
+        }
+        int k = random.nextInt(total);
+        for (int r = BinairoPosition.nextSetBit(rows, 0); r >= 0; r = BinairoPosition.nextSetBit(rows, r + 1)) {
+            for (int w = 0; w < pos.words; w++) {
+                long cells = bucketMask(pos, bucket, r, w);
+                int count = Long.bitCount(cells);
+                if (k >= count) {
+                    k -= count;
+                    continue;
+                }
+                for (; k > 0; k--) cells &= cells - 1;
+                return (r << 16) | ((w << 6) + Long.numberOfTrailingZeros(cells));
+            }
+        }
+        return -1;
+    }
+
+    private static long bucketMask(BinairoPosition pos, int bucket, int r, int w) {
+        return bucket == BUCKET_WIPEOUT ? pos.wipeoutMask(r, w)
+             : bucket == BUCKET_SINGLE ? pos.singleMask(r, w) : pos.emptyMask(r, w);
+    }
+
+    private static final int BUCKET_WIPEOUT = 0;
+    private static final int BUCKET_SINGLE = 1;
+    private static final int BUCKET_EMPTY = 2;
+
     @Override
     public int getDomainSize(Position p, Move var) {
         BinairoPosition pos = (BinairoPosition) p;
@@ -78,13 +299,10 @@ public class BinairoGame extends CSPSolver {
     public int getDegree(Position p, Move var) {
         BinairoPosition pos = (BinairoPosition) p;
         BinairoMove m = (BinairoMove) var;
-        int degree = 0;
         // Degré = nombre de voisins non assignés dans la ligne et la colonne
         // Ce sont les variables "connectées" par une contrainte de ligne/colonne
-        for (int k = 0; k < pos.n; k++) {
-            if (k != m.col && pos.board[m.row][k] == BinairoPosition.EMPTY) degree++;
-            if (k != m.row && pos.board[k][m.col] == BinairoPosition.EMPTY) degree++;
-        }
+        int degree = pos.rowEmptyCount(m.row) + pos.colEmptyCount(m.col);
+        if (pos.isEmpty(m.row, m.col)) degree -= 2; // la case elle-même n'est pas sa voisine
         return degree;
     }
 
@@ -109,42 +327,44 @@ public class BinairoGame extends CSPSolver {
         BinairoMove m = (BinairoMove) var;
         int constraintsCost = 0;
 
-        // On simule temporairement l'affectation dans la grille SANS copier tout l'objet (pour perf)
-        // On pose la valeur
-        int oldVal = pos.board[m.row][m.col];
-        pos.board[m.row][m.col] = val;
+        // Affectation simulée sans rien écrire dans la grille (sûr si la position est lue par
+        // d'autres threads) : les règles des voisins sont évaluées avec (m.row, m.col) = val
+        // posée virtuellement. Unicité : le voisin et 'var' sont les deux dernières cases vides
+        // de leur ligne, ou 'var' complète sa propre ligne perpendiculaire
+        boolean rowLastTwo = pos.rowEmptyCount(m.row) == 2;
+        boolean colLastTwo = pos.colEmptyCount(m.col) == 2;
+        boolean rowCompleted = pos.rowEmptyCount(m.row) == 1;
+        boolean colCompleted = pos.colEmptyCount(m.col) == 1;
 
-        // On parcourt tous les voisins (Ligne et Colonne) qui sont vides
         // Voisins Ligne
         for (int c = 0; c < pos.n; c++) {
-            if (c == m.col || pos.board[m.row][c] != BinairoPosition.EMPTY) continue;
-            
+            if (c == m.col || !pos.isEmpty(m.row, c)) continue;
+
             // Pour ce voisin, combien de ses valeurs possibles deviennent invalides ?
-            if (pos.domainAllows(m.row, c, 0)) {
-                // Si le voisin prenait nVal, est-ce que ce serait compatible avec notre val ?
-                // On utilise checkMoveRules sur le voisin
-                if (!checkMoveRules(pos, m.row, c, 0)) constraintsCost++;
-            }
-            if (pos.domainAllows(m.row, c, 1)) {
-                if (!checkMoveRules(pos, m.row, c, 1)) constraintsCost++;
+            for (int nVal = 0; nVal <= 1; nVal++) {
+                if (!pos.domainAllows(m.row, c, nVal)) continue;
+                boolean allowed = checkMoveRulesWith(pos, m.row, c, nVal, m.row, m.col, val)
+                        && !(rowLastTwo && pos.rowWouldDuplicate(m.row, c, nVal, m.col, val))
+                        && !(pos.colEmptyCount(c) == 1 && (pos.colWouldDuplicate(c, m.row, nVal)
+                                || colCompleted && nVal == val && pos.colsEqual(c, m.col)));
+                if (!allowed) constraintsCost++;
             }
         }
 
         // Voisins Colonne
         for (int r = 0; r < pos.n; r++) {
-            if (r == m.row || pos.board[r][m.col] != BinairoPosition.EMPTY) continue;
-            
-            if (pos.domainAllows(r, m.col, 0)) {
-                if (!checkMoveRules(pos, r, m.col, 0)) constraintsCost++;
-            }
-            if (pos.domainAllows(r, m.col, 1)) {
-                if (!checkMoveRules(pos, r, m.col, 1)) constraintsCost++;
+            if (r == m.row || !pos.isEmpty(r, m.col)) continue;
+
+            for (int nVal = 0; nVal <= 1; nVal++) {
+                if (!pos.domainAllows(r, m.col, nVal)) continue;
+                boolean allowed = checkMoveRulesWith(pos, r, m.col, nVal, m.row, m.col, val)
+                        && !(colLastTwo && pos.colWouldDuplicate(m.col, r, nVal, m.row, val))
+                        && !(pos.rowEmptyCount(r) == 1 && (pos.rowWouldDuplicate(r, m.col, nVal)
+                                || rowCompleted && nVal == val && pos.rowsEqual(r, m.row)));
+                if (!allowed) constraintsCost++;
             }
         }
 
-        // On remet la grille dans l'état initial (Backtrack local)
-        pos.board[m.row][m.col] = oldVal;
-
         return constraintsCost;
     }
 
@@ -158,163 +378,588 @@ public class BinairoGame extends CSPSolver {
         
         // Ligne
         for (int c = 0; c < pos.n; c++) {
-            if (pos.board[m.row][c] == BinairoPosition.EMPTY) {
+            if (pos.isEmpty(m.row, c)) {
                 if (!revise(pos, m.row, c)) return false;
             }
         }
         // Colonne
         for (int r = 0; r < pos.n; r++) {
-            if (pos.board[r][m.col] == BinairoPosition.EMPTY) {
+            if (pos.isEmpty(r, m.col)) {
                 if (!revise(pos, r, m.col)) return false;
             }
         }
-        return true;
+        return propagateUniqueness(pos, m);
     }
 
+    // Espace de travail AC-3 réutilisé d'un nœud à l'autre (aucune allocation pendant la recherche) :
+    // file circulaire d'indices de cases (r * n + c) + bitset "déjà dans la file"
+    private int[] acQueue;
+    private long[] acInQueue;
+
     /**
-     * VRAIE IMPLÉMENTATION AC-3 AVEC FILE (QUEUE)
+     * AC-3 INCRÉMENTAL, SANS ALLOCATION
+     * La file contient des cases (et non des arcs) : réviser une case = vérifier chacune de ses
+     * valeurs contre tous ses voisins de ligne/colonne. On ne part que des cases touchées par
+     * le dernier coup ; sans dernier coup (lastMove == null), toutes les cases vides sont semées.
      */
     @Override
-    public boolean ac3(Position p) {
+    public boolean ac3(Position p, Move lastMove) {
         BinairoPosition pos = (BinairoPosition) p;
-        
-        // 1. Initialisation de la File avec tous les arcs
-        // Un arc = une dépendance entre deux variables non affectées (Xi, Xj)
-        // Dans Binairo, tout élément d'une ligne dépend des autres de la ligne (et idem colonne)
-        Queue<Arc> queue = new LinkedList<>();
-
-        // On remplit la queue avec toutes les paires de contraintes
-        for (int i = 0; i < pos.n; i++) {
-            for (int j = 0; j < pos.n; j++) {
-                if (pos.board[i][j] == BinairoPosition.EMPTY) {
-                    addArcsForVariable(pos, i, j, queue);
-                }
+        int n = pos.n;
+        int cells = n * n;
+        if (acQueue == null || acQueue.length < cells) {
+            acQueue = new int[cells];
+            acInQueue = new long[(cells + 63) >>> 6];
+        }
+        int head = 0, size = 0;
+
+        // 1. Initialisation de la File
+        if (lastMove != null) {
+            // Les réductions dues à l'unicité touchent la ligne/colonne du coup, semées juste après
+            if (!propagateUniqueness(pos, (BinairoMove) lastMove)) return false;
+            // Seules la ligne et la colonne du dernier coup ont vu leurs contraintes changer
+            BinairoMove m = (BinairoMove) lastMove;
+            for (int k = 0; k < n; k++) {
+                if (pos.isEmpty(m.row, k)) size = enqueue(m.row * n + k, head, size, cells);
+                if (pos.isEmpty(k, m.col)) size = enqueue(k * n + m.col, head, size, cells);
+            }
+        } else {
+            for (int cell = 0; cell < cells; cell++) {
+                if (pos.isEmpty(cell / n, cell % n)) size = enqueue(cell, head, size, cells);
             }
         }
 
         // 2. Boucle principale AC-3
-        while (!queue.isEmpty()) {
-            Arc arc = queue.poll(); // Extraire (Xi, Xj)
-            
-            // Si on supprime une valeur de Xi parce qu'elle n'est pas compatible avec Xj
-            if (reviseArc(pos, arc.xi, arc.xj)) {
-                
+        boolean consistent = true;
+        while (size > 0) {
+            int cell = acQueue[head];
+            head = head + 1 == cells ? 0 : head + 1;
+            size--;
+            acInQueue[cell >>> 6] &= ~(1L << cell);
+            int r = cell / n, c = cell % n;
+
+            // Si on supprime une valeur de Xi parce qu'elle n'a plus de support chez ses voisins
+            if (reviseCell(pos, r, c)) {
+
                 // Vérifier si le domaine est devenu vide (Échec)
-                if (pos.getDomainSize(arc.xi.r, arc.xi.c) == 0) {
-                    return false;
+                if (pos.getDomainSize(r, c) == 0) {
+                    consistent = false;
+                    break;
+                }
+
+                // Si changement, on doit revérifier tous les voisins vides de Xi
+                for (int k = 0; k < n; k++) {
+                    if (k != c && pos.isEmpty(r, k)) size = enqueue(r * n + k, head, size, cells);
+                    if (k != r && pos.isEmpty(k, c)) size = enqueue(k * n + c, head, size, cells);
                 }
-                
-                // Si changement, on doit revérifier tous les voisins de Xi (sauf Xj)
-                // On ajoute les arcs (Xk, Xi) dans la file
-                addNeighborArcs(pos, arc.xi, arc.xj, queue);
             }
         }
+
+        // Vider le bitset pour le prochain appel (seulement les cases restées dans la file)
+        for (; size > 0; size--) {
+            int cell = acQueue[head];
+            head = head + 1 == cells ? 0 : head + 1;
+            acInQueue[cell >>> 6] &= ~(1L << cell);
+        }
+        return consistent;
+    }
+
+    /**
+     * COHÉRENCE GÉNÉRALISÉE SUR LES LIGNES (GAC)
+     * Chaque ligne et chaque colonne garde le bitset de ses motifs légaux encore compatibles
+     * (BinairoPosition.lineCandidates, filtré à chaque affectation). Une valeur de case n'est
+     * gardée que si un motif compatible de sa ligne ET un de sa colonne la portent : triple,
+     * parité et équilibre sont ainsi traités sur la ligne entière, pas par paires de cases.
+     * Une valeur retirée filtre la ligne croisée, qui repart dans la file (bitset de 2n lignes).
+     * Unicité : une ligne réduite à un seul motif retire ce motif des autres lignes.
+     * Sans table (n > LinePatterns.MAX_N), on retombe sur le Forward Checking.
+     */
+    @Override
+    public boolean lineConsistency(Position p, Move lastMove) {
+        BinairoPosition pos = (BinairoPosition) p;
+        if (pos.patterns == null) return lastMove == null || forwardChecking(p, lastMove);
+        int n = pos.n;
+
+        long queue;
+        if (lastMove != null) {
+            BinairoMove m = (BinairoMove) lastMove;
+            queue = (1L << m.row) | (1L << (n + m.col));
+        } else {
+            queue = (1L << (2 * n)) - 1;
+        }
+
+        while (queue != 0) {
+            int line = Long.numberOfTrailingZeros(queue);
+            queue &= queue - 1;
+            long touched = reviseLine(pos, line);
+            if (touched < 0) return false;
+            queue |= touched;
+        }
         return true;
     }
 
-    // Ajoute tous les arcs (Xi, Xk) où Xk est un voisin de Xi
-    private void addArcsForVariable(BinairoPosition pos, int r, int c, Queue<Arc> queue) {
-        Coord xi = new Coord(r, c);
-        // Voisins Ligne
-        for (int k = 0; k < pos.n; k++) {
-            if (k != c && pos.board[r][k] == BinairoPosition.EMPTY) {
-                queue.add(new Arc(xi, new Coord(r, k)));
+    // Tables de motifs et propagation initiale (GAC, ou AC-3 sur toute la grille), puis
+    // pré-résolution par règles
+    @Override
+    protected boolean prepare(Position p) {
+        BinairoPosition pos = (BinairoPosition) p;
+        // Raisons d'une recherche précédente : réactivées par search si useBackjumping
+        pos.disableReasons();
+        if (useWdeg) Arrays.fill(weights(pos.n), 1);
+        if (useGAC) {
+            LinePatterns table = LinePatterns.forSize(pos.n);
+            if (table != null) {
+                pos.enablePatterns(table);
+                if (!lineConsistency(pos, null)) return false;
             }
+        } else if (useAC3 || useAdaptive) {
+            // AC-3 incrémental ne part que du dernier coup : la racine est rendue arc-cohérente
+            // ici, sinon les valeurs que les indices suffisent à exclure resteraient dans les
+            // domaines jusqu'à ce qu'un coup touche leur ligne ou leur colonne
+            if (!propagate(pos, null)) return false;
         }
-        // Voisins Colonne
-        for (int k = 0; k < pos.n; k++) {
-            if (k != r && pos.board[k][c] == BinairoPosition.EMPTY) {
-                queue.add(new Arc(xi, new Coord(k, c)));
+        return !usePresolve || deduce(pos, null);
+    }
+
+    /**
+     * Révise une ligne (0..n-1) ou une colonne (n..2n-1) contre ses motifs compatibles.
+     * Retourne le bitset des lignes à réviser à nouveau, ou -1 si la ligne n'a plus de motif.
+     */
+    private long reviseLine(BinairoPosition pos, int line) {
+        int n = pos.n;
+        boolean isRow = line < n;
+        int idx = isRow ? line : line - n;
+
+        // Cases vides de la ligne et valeurs encore permises, en coordonnées de ligne
+        long empty, allowZero, allowOne;
+        if (isRow) {
+            empty = pos.emptyMask(idx, 0);
+            allowZero = pos.rowAllowZero[idx] & empty;
+            allowOne = pos.rowAllowOne[idx] & empty;
+        } else {
+            empty = pos.colEmptyMask(idx);
+            allowZero = 0;
+            allowOne = 0;
+            for (long e = empty; e != 0; e &= e - 1) {
+                int r = Long.numberOfTrailingZeros(e);
+                if (pos.domainAllows(r, idx, BinairoPosition.ZERO)) allowZero |= 1L << r;
+                if (pos.domainAllows(r, idx, BinairoPosition.ONE)) allowOne |= 1L << r;
             }
         }
-    }
 
-    // Ajoute les arcs entrants vers xi (sauf xj)
-    private void addNeighborArcs(BinairoPosition pos, Coord xi, Coord xj, Queue<Arc> queue) {
-        // Ligne
-        for (int k = 0; k < pos.n; k++) {
-            if (k != xi.c && pos.board[xi.r][k] == BinairoPosition.EMPTY) {
-                Coord xk = new Coord(xi.r, k);
-                if (!xk.equals(xj)) queue.add(new Arc(xk, xi));
+        // Supports : union des motifs (uns) et de leurs compléments (zéros). On s'arrête dès
+        // que toutes les valeurs encore permises sont portées par au moins deux motifs vus.
+        LinePatterns table = pos.patterns;
+        long[] candidates = pos.lineCandidates;
+        int base = line * table.words;
+        long supportOne = 0, supportZero = 0;
+        long full = (1L << n) - 1;
+        int seen = 0, single = -1;
+        scan:
+        for (int w = 0; w < table.words; w++) {
+            for (long bits = candidates[base + w]; bits != 0; bits &= bits - 1) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+                long pattern = table.patterns[i];
+                supportOne |= pattern;
+                supportZero |= ~pattern & full;
+                single = i;
+                if (++seen >= 2 && (supportOne & allowOne) == allowOne && (supportZero & allowZero) == allowZero) {
+                    break scan;
+                }
             }
         }
-        // Colonne
-        for (int k = 0; k < pos.n; k++) {
-            if (k != xi.r && pos.board[k][xi.c] == BinairoPosition.EMPTY) {
-                Coord xk = new Coord(k, xi.c);
-                if (!xk.equals(xj)) queue.add(new Arc(xk, xi));
+        if (seen == 0) {
+            if (pos.lineReason != null && !pos.conflictKnown) pos.addConflictLine(line);
+            bumpWeight(n, line);
+            return -1;
+        }
+
+        long touched = 0;
+
+        // Unicité : le seul motif restant est réservé à cette ligne
+        if (seen == 1) {
+            int from = isRow ? 0 : n;
+            for (int other = from; other < from + n; other++) {
+                if (other != line && pos.removePattern(other, single)) {
+                    if (pos.lineReason != null) pos.mergeReason(other, line);
+                    touched |= 1L << other;
+                }
+            }
+        }
+
+        // Valeurs sans support : retirées du domaine, et la ligne croisée est filtrée
+        long lost = (allowZero & ~supportZero) | (allowOne & ~supportOne);
+        for (; lost != 0; lost &= lost - 1) {
+            int k = Long.numberOfTrailingZeros(lost);
+            int r = isRow ? idx : k, c = isRow ? k : idx;
+            if ((allowZero & ~supportZero & (1L << k)) != 0) prune(pos, r, c, BinairoPosition.ZERO, line);
+            if ((allowOne & ~supportOne & (1L << k)) != 0) prune(pos, r, c, BinairoPosition.ONE, line);
+
+            int mask = pos.getDomainMask(r, c);
+            if (mask == 0) return -1;
+            int cross = isRow ? n + k : k;
+            if (pos.restrictLine(cross, idx, mask == 0b01 ? BinairoPosition.ZERO : BinairoPosition.ONE)) {
+                touched |= 1L << cross;
             }
         }
+        return touched;
     }
 
-    // La fonction REVISE spécifique à AC-3 (Arc consistency check)
-    // Vérifie si pour tout x dans D(xi), il existe un y dans D(xj) qui satisfait les contraintes
-    private boolean reviseArc(BinairoPosition pos, Coord xi, Coord xj) {
+    // Ajoute la case en fin de file si elle n'y est pas déjà ; retourne la nouvelle taille
+    private int enqueue(int cell, int head, int size, int capacity) {
+        long bit = 1L << cell;
+        if ((acInQueue[cell >>> 6] & bit) != 0) return size;
+        acInQueue[cell >>> 6] |= bit;
+        int tail = head + size;
+        acQueue[tail >= capacity ? tail - capacity : tail] = cell;
+        return size + 1;
+    }
+
+    // La fonction REVISE spécifique à AC-3 : pour chaque valeur x de D(Xi), il faut un support
+    // y dans le domaine de CHAQUE voisin Xj (ligne et colonne). Retourne true si D(Xi) a changé.
+    private boolean reviseCell(BinairoPosition pos, int r, int c) {
         boolean revised = false;
-        List<Integer> toRemove = new ArrayList<>();
 
+        int n = pos.n;
         for (int x = 0; x <= 1; x++) {
-            if (!pos.domainAllows(xi.r, xi.c, x)) continue;
-            boolean supported = false;
-            
-            // On cherche un support y dans le domaine de Xj
-            for (int y = 0; y <= 1; y++) {
-                if (!pos.domainAllows(xj.r, xj.c, y)) continue;
-                if (isConsistentPair(pos, xi, x, xj, y)) {
-                    supported = true;
-                    break;
+            if (!pos.domainAllows(r, c, x)) continue;
+            // Ligne (r) ou colonne (n + c) qui rejette x, pour les raisons du retour arrière
+            int source = !rowRulesAllow(pos, r, c, x) ? r : !colRulesAllow(pos, r, c, x) ? n + c : -1;
+
+            // On cherche un support dans le domaine de chaque voisin Xj
+            for (int k = 0; source < 0 && k < n; k++) {
+                if (k != c && pos.isEmpty(r, k) && !hasSupport(pos, r, c, x, r, k)) {
+                    // Le voisin (r, k) est aussi contraint par sa colonne
+                    if (pos.lineReason != null) pos.mergeReason(r, n + k);
+                    source = r;
+                } else if (k != r && pos.isEmpty(k, c) && !hasSupport(pos, r, c, x, k, c)) {
+                    if (pos.lineReason != null) pos.mergeReason(n + c, k);
+                    source = n + c;
                 }
             }
-            
-            if (!supported) {
-                toRemove.add(x);
+
+            if (source >= 0) {
+                // retirer x du masque (la valeur testée ensuite ne dépend pas de D(Xi))
+                prune(pos, r, c, x, source);
                 revised = true;
             }
         }
+        return revised;
+    }
 
-        for (int val : toRemove) {
-            // retirer val du masque
-            short m = pos.domainMask[xi.r][xi.c];
-            if (val == 0) m = (short)(m & ~0b01); else m = (short)(m & ~0b10);
-            pos.domainMask[xi.r][xi.c] = m;
+    private boolean hasSupport(BinairoPosition pos, int r, int c, int x, int rj, int cj) {
+        for (int y = 0; y <= 1; y++) {
+            if (pos.domainAllows(rj, cj, y) && isConsistentPair(pos, r, c, x, rj, cj, y)) return true;
         }
-        return revised;
+        return false;
+    }
+
+    // Vérifie si l'affectation (Xi=valX, Xj=valY) est légale, sans rien écrire dans la position
+    private boolean isConsistentPair(BinairoPosition pos, int ri, int ci, int valX, int rj, int cj, int valY) {
+        return checkMoveRulesWith(pos, ri, ci, valX, rj, cj, valY) &&
+               checkMoveRulesWith(pos, rj, cj, valY, ri, ci, valX);
     }
 
-    // Vérifie si l'affectation (Xi=valX, Xj=valY) est légale
-    private boolean isConsistentPair(BinairoPosition pos, Coord xi, int valX, Coord xj, int valY) {
-        // Pose virtuelle SANS modifier les compteurs (checkMoveRules ajoute +1 logique)
-        int oldXi = pos.board[xi.r][xi.c];
-        int oldXj = pos.board[xj.r][xj.c];
+    /**
+     * RÈGLE D'UNICITÉ ANTICIPÉE
+     * Une ligne à 1 ou 2 cases vides ne doit pas pouvoir se compléter en copie d'une ligne
+     * déjà complète : pour chaque complétion qui serait un doublon, on retire ses valeurs des
+     * domaines des cases vides (avec 2 cases, la parité ne laisse que deux complétions 01/10).
+     * Appliquée à la ligne et la colonne du coup, et à toutes les lignes (resp. colonnes)
+     * presque complètes quand le coup vient de compléter une ligne (resp. colonne).
+     */
+    private boolean propagateUniqueness(BinairoPosition pos, BinairoMove m) {
+        // Variante large : seule la vérification au moment de la complétion s'applique
+        if (pos.rowLines == null) return true;
+
+        if (pos.isRowFull(m.row)) {
+            for (int r = 0; r < pos.n; r++) {
+                if (!pruneNearDuplicate(pos, r, true)) return false;
+            }
+        } else if (!pruneNearDuplicate(pos, m.row, true)) return false;
 
-        pos.board[xi.r][xi.c] = valX;
-        pos.board[xj.r][xj.c] = valY;
+        if (pos.isColFull(m.col)) {
+            for (int c = 0; c < pos.n; c++) {
+                if (!pruneNearDuplicate(pos, c, false)) return false;
+            }
+        } else if (!pruneNearDuplicate(pos, m.col, false)) return false;
+        return true;
+    }
 
-        boolean valid = checkMoveRules(pos, xi.r, xi.c, valX) &&
-                        checkMoveRules(pos, xj.r, xj.c, valY);
+    private boolean pruneNearDuplicate(BinairoPosition pos, int line, boolean isRow) {
+        long holes = isRow ? pos.emptyMask(line, 0) : pos.colEmptyMask(line);
+        int empty = Long.bitCount(holes);
+        if (empty == 0 || empty > 2) return true;
+
+        LineSet lines = isRow ? pos.rowLines : pos.colLines;
+        long ones = isRow ? pos.rowOnes[line] : pos.colOnes[line];
+        int a = Long.numberOfTrailingZeros(holes);
+        int b = empty == 2 ? 63 - Long.numberOfLeadingZeros(holes) : -1;
+
+        for (int va = 0; va <= 1; va++) {
+            for (int vb = 0; vb <= (b < 0 ? 0 : 1); vb++) {
+                long candidate = ones | ((long) va << a) | (b < 0 ? 0 : (long) vb << b);
+                if (!lines.contains(candidate)) continue;
+                // Complétion interdite : chaque case vide perd la valeur qu'elle y prend
+                removeOnLine(pos, line, a, va, isRow);
+                if (b >= 0) removeOnLine(pos, line, b, vb, isRow);
+            }
+        }
+        if (domainSizeOnLine(pos, line, a, isRow) == 0) return false;
+        return b < 0 || domainSizeOnLine(pos, line, b, isRow) > 0;
+    }
 
-        // revert
-        pos.board[xi.r][xi.c] = oldXi;
-        pos.board[xj.r][xj.c] = oldXj;
-        return valid;
+    private void removeOnLine(BinairoPosition pos, int line, int k, int val, boolean isRow) {
+        int n = pos.n;
+        if (isRow) prune(pos, line, k, val, line, 2 * n); else prune(pos, k, line, val, n + line, 2 * n + 1);
+    }
+
+    private int domainSizeOnLine(BinairoPosition pos, int line, int k, boolean isRow) {
+        return isRow ? pos.getDomainSize(line, k) : pos.getDomainSize(k, line);
     }
 
     // Fonction REVISE simple pour Forward Checking (sans file)
     private boolean revise(BinairoPosition pos, int r, int c) {
-        List<Integer> toRemove = new ArrayList<>();
-
         for (int val = 0; val <= 1; val++) {
+            // Les règles ne lisent pas le domaine de (r, c) : on peut retirer au fil de l'eau
             if (!pos.domainAllows(r, c, val)) continue;
-            if (!checkMoveRules(pos, r, c, val)) {
-                toRemove.add(val);
+            if (!rowRulesAllow(pos, r, c, val)) prune(pos, r, c, val, r);
+            else if (!colRulesAllow(pos, r, c, val)) prune(pos, r, c, val, pos.n + c);
+        }
+        return pos.getDomainSize(r, c) > 0;
+    }
+
+    // Retire une valeur du domaine, en la comptant dans les mesures si elles sont actives.
+    // 'source' : ligne (0..n-1) ou colonne (n..2n-1) qui impose le retrait, pour les raisons
+    private void prune(BinairoPosition pos, int r, int c, int val, int source) {
+        prune(pos, r, c, val, source, source);
+    }
+
+    // 'constraint' : contrainte dont le poids dom/wdeg augmente si le retrait vide le domaine
+    private void prune(BinairoPosition pos, int r, int c, int val, int source, int constraint) {
+        boolean allowed = pos.domainAllows(r, c, val);
+        if (allowed) {
+            prunedValues++;
+            if (metrics != null) metrics.prune();
+        }
+        pos.removeFromDomain(r, c, val, source);
+        if (useWdeg && allowed && pos.getDomainSize(r, c) == 0) bumpWeight(pos.n, constraint);
+    }
+
+    // Cases posées par la déduction en cours (indices r * n + c), propagées ensuite une à une
+    private int[] deducedCells;
+
+    /**
+     * DÉDUCTION PAR RÈGLES (point fixe sur une liste de lignes sales)
+     * Règles appliquées à chaque ligne/colonne sale, par masques sur les bitboards :
+     *  - paire : 00_ / _00 -> 1 (et inversement) ;
+     *  - sandwich : 0_0 -> 1 (et inversement) ;
+     *  - complétion : n/2 valeurs identiques posées -> le reste prend l'autre valeur ;
+     *  - unicité : à 2 cases vides, la complétion qui copierait une ligne complète est écartée ;
+     *  - singleton : une case vide à domaine réduit à une valeur la reçoit.
+     * Chaque case forcée est validée (règles du jeu, domaine) puis posée via assign (trail),
+     * ce qui salit sa ligne et sa colonne. Quand une passe est finie, les cases posées sont
+     * propagées (FC / AC-3 / GAC si actifs), ce qui peut créer de nouveaux singletons.
+     * Variante large (n > 64) : pas de déduction.
+     */
+    @Override
+    public boolean deduce(Position p, Move lastMove) {
+        BinairoPosition pos = (BinairoPosition) p;
+        if (pos.words != 1) return true;
+        int n = pos.n;
+        if (deducedCells == null || deducedCells.length < n * n) deducedCells = new int[n * n];
+
+        long dirtyRows, dirtyCols;
+        if (lastMove != null) {
+            BinairoMove m = (BinairoMove) lastMove;
+            dirtyRows = 1L << m.row;
+            dirtyCols = 1L << m.col;
+        } else {
+            dirtyRows = dirtyCols = n == 64 ? -1L : (1L << n) - 1;
+        }
+
+        while (true) {
+            // Les singletons créés par la propagation sont repérés par le seau MRV
+            dirtyRows |= pos.rowsWithSingle[0];
+            int count = 0;
+
+            while ((dirtyRows | dirtyCols) != 0) {
+                boolean isRow = dirtyRows != 0;
+                int line = Long.numberOfTrailingZeros(isRow ? dirtyRows : dirtyCols);
+                if (isRow) dirtyRows &= dirtyRows - 1; else dirtyCols &= dirtyCols - 1;
+
+                long[] forced = forcedCells(pos, line, isRow);
+                if (forced == null) {
+                    if (pos.lineReason != null && !pos.conflictKnown) pos.addConflictLine(isRow ? line : n + line);
+                    bumpWeight(n, isRow ? line : n + line);
+                    return false;
+                }
+                long forceZero = forced[0], forceOne = forced[1];
+
+                for (long f = forceZero | forceOne; f != 0; f &= f - 1) {
+                    int k = Long.numberOfTrailingZeros(f);
+                    int r = isRow ? line : k, c = isRow ? k : line;
+                    int val = (forceOne & (1L << k)) != 0 ? BinairoPosition.ONE : BinairoPosition.ZERO;
+                    if (!pos.isEmpty(r, c)) continue;
+                    if (!pos.domainAllows(r, c, val) || !checkMoveRules(pos, r, c, val)) {
+                        if (pos.lineReason != null && !pos.conflictKnown) pos.addConflictCell(r, c);
+                        return false;
+                    }
+                    pos.assign(r, c, val, isRow ? line : n + line);
+                    deducedCells[count++] = r * n + c;
+                    dirtyRows |= 1L << r;
+                    dirtyCols |= 1L << c;
+                    if (metrics != null) metrics.deduced();
+                }
+            }
+
+            if (count == 0 || !usesPropagation()) return true;
+            for (int i = 0; i < count; i++) {
+                int r = deducedCells[i] / n, c = deducedCells[i] % n;
+                if (!propagate(pos, new BinairoMove(r, c, pos.get(r, c)))) return false;
+                dirtyRows |= 1L << r;
+                dirtyCols |= 1L << c;
             }
         }
-        for (int val : toRemove) {
-            short m = pos.domainMask[r][c];
-            if (val == 0) m = (short)(m & ~0b01); else m = (short)(m & ~0b10);
-            pos.domainMask[r][c] = m;
+    }
+
+    // --- Retour arrière dirigé par les conflits : raisons tenues par BinairoPosition ---
+
+    // Un niveau de décision par case vide au plus
+    @Override
+    protected int enableReasons(Position p) {
+        BinairoPosition pos = (BinairoPosition) p;
+        int levels = 0;
+        for (int r = 0; r < pos.n; r++) levels += pos.rowEmptyCount(r);
+        pos.enableReasons(levels);
+        return levels;
+    }
+
+    @Override
+    protected int literal(Position p, Move move) {
+        BinairoMove m = (BinairoMove) move;
+        return ((m.row * ((BinairoPosition) p).n + m.col) << 1) | m.value;
+    }
+
+    @Override
+    protected void explainVariable(Position p, Move var, long[] into) {
+        BinairoMove m = (BinairoMove) var;
+        ((BinairoPosition) p).orCellReason(m.row, m.col, into);
+    }
+
+    @Override
+    protected void clearConflict(Position p) {
+        ((BinairoPosition) p).clearConflict();
+    }
+
+    @Override
+    protected boolean explainConflict(Position p, long[] into) {
+        BinairoPosition pos = (BinairoPosition) p;
+        if (!pos.conflictKnown) return false;
+        for (int i = 0; i < into.length; i++) into[i] |= pos.conflict[i];
+        return true;
+    }
+
+    /**
+     * Nogoods qui contiennent la décision qui vient d'être posée (index du magasin) : si tous
+     * leurs littéraux sont vrais, la branche est coupée ; s'il n'en reste qu'un encore possible
+     * (case vide qui admet la valeur), cette valeur est retirée du domaine, avec pour raison
+     * celles des cases des autres littéraux. Le singleton obtenu est pris en premier par MRV.
+     * Les nogoods dont le dernier littéral devient vrai par propagation ne sont pas vus : la
+     * vérification reste un élagage, jamais une condition de correction.
+     */
+    @Override
+    protected boolean checkNogoods(Position p, Move lastMove) {
+        BinairoPosition pos = (BinairoPosition) p;
+        int n = pos.n;
+        NogoodStore store = nogoods;
+        int decided = literal(p, lastMove);
+        for (int i = store.nextWith(decided, 0); i >= 0; i = i + 1 < store.capacity ? store.nextWith(decided, i + 1) : -1) {
+            int len = store.length(i);
+            int open = -1;
+            boolean inactive = false;
+            for (int j = 0; j < len && !inactive; j++) {
+                int lit = store.literal(i, j);
+                int cell = lit >>> 1, val = lit & 1;
+                int v = pos.get(cell / n, cell % n);
+                if (v == val) continue;
+                // Littéral faux, ou deuxième littéral encore ouvert : rien à conclure
+                inactive = v != BinairoPosition.EMPTY || !pos.domainAllows(cell / n, cell % n, val) || open >= 0;
+                open = lit;
+            }
+            if (inactive) continue;
+            store.hit(i);
+
+            if (open < 0) {
+                if (!pos.conflictKnown) {
+                    for (int j = 0; j < len; j++) {
+                        int cell = store.literal(i, j) >>> 1;
+                        pos.addConflictCell(cell / n, cell % n);
+                    }
+                }
+                return false;
+            }
+            int r = (open >>> 1) / n, c = (open >>> 1) % n;
+            for (int j = 0; j < len; j++) {
+                int cell = store.literal(i, j) >>> 1;
+                if (cell == open >>> 1) continue;
+                pos.mergeReason(r, cell / n);
+                pos.mergeReason(r, n + cell % n);
+            }
+            prune(pos, r, c, open & 1, r);
+            if (pos.getDomainSize(r, c) == 0) return false;
         }
-        return pos.getDomainSize(r, c) > 0;
+        return true;
+    }
+
+    // Espace de travail de forcedCells : {forcer 0, forcer 1}
+    private final long[] forcedMasks = new long[2];
+
+    /**
+     * Cases vides d'une ligne (isRow) ou colonne que les règles forcent, en coordonnées de ligne :
+     * {masque des cases forcées à 0, masque des cases forcées à 1}. null si une case est forcée
+     * aux deux valeurs (contradiction).
+     */
+    private long[] forcedCells(BinairoPosition pos, int line, boolean isRow) {
+        int n = pos.n;
+        long full = n == 64 ? -1L : (1L << n) - 1;
+        long filled = isRow ? pos.rowFilled[line] : pos.colFilled[line];
+        long ones = isRow ? pos.rowOnes[line] : pos.colOnes[line];
+        long zeros = filled & ~ones;
+        long empty = ~filled & full;
+
+        // Paires et sandwichs : la case à côté de deux valeurs identiques prend l'autre valeur
+        long forceOne = adjacentToPair(zeros) & empty;
+        long forceZero = adjacentToPair(ones) & empty;
+
+        // Complétion : n/2 valeurs identiques déjà posées
+        if (Long.bitCount(zeros) == n / 2) forceOne |= empty;
+        if (Long.bitCount(ones) == n / 2) forceZero |= empty;
+
+        // Unicité : 2 cases vides et un seul 1 à placer -> deux complétions possibles
+        LineSet lines = isRow ? pos.rowLines : pos.colLines;
+        if (lines != null && Long.bitCount(empty) == 2 && Long.bitCount(ones) == n / 2 - 1) {
+            long a = Long.lowestOneBit(empty), b = empty & ~a;
+            if (lines.contains(ones | a)) { forceZero |= a; forceOne |= b; }
+            if (lines.contains(ones | b)) { forceZero |= b; forceOne |= a; }
+        }
+
+        // Singletons (domaines en ordre ligne-major : lus directement pour les lignes)
+        if (isRow) {
+            long allowZero = pos.rowAllowZero[line], allowOne = pos.rowAllowOne[line];
+            forceZero |= empty & allowZero & ~allowOne;
+            forceOne |= empty & allowOne & ~allowZero;
+        }
+
+        if ((forceZero & forceOne) != 0) return null;
+        forcedMasks[0] = forceZero;
+        forcedMasks[1] = forceOne;
+        return forcedMasks;
+    }
+
+    // Cases voisines d'une paire (xx_ / _xx) ou prises en sandwich (x_x) dans le masque s
+    private static long adjacentToPair(long s) {
+        return ((s << 1) & (s << 2)) | ((s >>> 1) & (s >>> 2)) | ((s << 1) & (s >>> 1));
     }
 
     // =========================================================================
@@ -322,54 +967,76 @@ public class BinairoGame extends CSPSolver {
     // =========================================================================
 
     private boolean checkMoveRules(BinairoPosition pos, int r, int c, int val) {
-        int[][] b = pos.board;
-        int n = pos.n;
+        return rowRulesAllow(pos, r, c, val) && colRulesAllow(pos, r, c, val);
+    }
 
+    // Règles vues depuis la ligne r seule
+    private boolean rowRulesAllow(BinairoPosition pos, int r, int c, int val) {
         // 1. Règle du Triple (Pas de 000 ou 111)
-        // Vérification avec conditions aux limites pour ne pas sortir du tableau
-        if (c >= 2 && b[r][c-1] == val && b[r][c-2] == val) return false;
-        if (c < n-2 && b[r][c+1] == val && b[r][c+2] == val) return false;
-        if (c > 0 && c < n-1 && b[r][c-1] == val && b[r][c+1] == val) return false;
-
-        if (r >= 2 && b[r-1][c] == val && b[r-2][c] == val) return false;
-        if (r < n-2 && b[r+1][c] == val && b[r+2][c] == val) return false;
-        if (r > 0 && r < n-1 && b[r-1][c] == val && b[r+1][c] == val) return false;
+        // Fenêtre de 5 bits extraite des bitboards : les bords de grille sont déjà à 0
+        if (makesTriple(pos.rowWindow(r, c, val))) return false;
 
         // 2. Règle de Parité (Max N/2 occurrences)
-        if (val == 0) {
-            if (pos.rowZeroCount[r] + 1 > n / 2) return false;
-            if (pos.colZeroCount[c] + 1 > n / 2) return false;
-        } else {
-            if (pos.rowOneCount[r] + 1 > n / 2) return false;
-            if (pos.colOneCount[c] + 1 > n / 2) return false;
-        }
+        if (pos.rowCount(r, val) + 1 > pos.n / 2) return false;
 
+        // 3. Règle d'Unicité : la case ne doit pas compléter une copie d'une ligne existante
+        return !pos.isEmpty(r, c) || pos.rowEmptyCount(r) != 1 || !pos.rowWouldDuplicate(r, c, val);
+    }
+
+    // Mêmes règles vues depuis la colonne c seule
+    private boolean colRulesAllow(BinairoPosition pos, int r, int c, int val) {
+        if (makesTriple(pos.colWindow(c, r, val))) return false;
+        if (pos.colCount(c, val) + 1 > pos.n / 2) return false;
+        return !pos.isEmpty(r, c) || pos.colEmptyCount(c) != 1 || !pos.colWouldDuplicate(c, r, val);
+    }
+
+    // checkMoveRules en supposant en plus la case (r2, c2) posée à val2 (pose purement virtuelle)
+    private boolean checkMoveRulesWith(BinairoPosition pos, int r, int c, int val, int r2, int c2, int val2) {
+        int n = pos.n;
+        int rowWin = pos.rowWindow(r, c, val);
+        int colWin = pos.colWindow(c, r, val);
+        int rowExtra = 0, colExtra = 0;
+        if (val2 == val) {
+            if (r2 == r) {
+                int d = c2 - c;
+                if (d >= -2 && d <= 2) rowWin |= 1 << (d + 2);
+                rowExtra = 1;
+            } else if (c2 == c) {
+                int d = r2 - r;
+                if (d >= -2 && d <= 2) colWin |= 1 << (d + 2);
+                colExtra = 1;
+            }
+        }
+        if (makesTriple(rowWin) || makesTriple(colWin)) return false;
+        if (pos.rowCount(r, val) + rowExtra + 1 > n / 2) return false;
+        if (pos.colCount(c, val) + colExtra + 1 > n / 2) return false;
         return true;
     }
 
+    // Fenêtre (k-2 .. k+2) : triple si les deux voisins d'un même côté, ou de part et d'autre, ont la valeur
+    private static boolean makesTriple(int w) {
+        return (w & 0b00011) == 0b00011 || (w & 0b01010) == 0b01010 || (w & 0b11000) == 0b11000;
+    }
+
     private boolean checkUniqueRowsCols(BinairoPosition pos) {
-        // Vérifie unicité des lignes
-        HashSet<String> lines = new HashSet<>();
+        if (pos.rowLines != null) {
+            return pos.rowLines.duplicates == 0 && pos.colLines.duplicates == 0;
+        }
+
+        // Variante large : vérifie unicité des lignes
+        // On ne vérifie l'unicité que si la ligne est complète ; comparaison directe des masques
         for (int i = 0; i < pos.n; i++) {
-            StringBuilder sb = new StringBuilder();
-            for (int j = 0; j < pos.n; j++) sb.append(pos.board[i][j]);
-            String s = sb.toString();
-            // On ne vérifie l'unicité que si la ligne est complète (ne contient pas -1)
-            if (!s.contains("-1")) {
-                if (lines.contains(s)) return false;
-                lines.add(s);
+            if (!pos.isRowFull(i)) continue;
+            for (int j = i + 1; j < pos.n; j++) {
+                if (pos.isRowFull(j) && pos.rowsEqual(i, j)) return false;
             }
         }
-        
+
         // Vérifie unicité des colonnes
-        HashSet<String> cols = new HashSet<>();
-        for (int j = 0; j < pos.n; j++) {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < pos.n; i++) sb.append(pos.board[i][j]);
-            String s = sb.toString();
-            if (!s.contains("-1")) {
-                if (cols.contains(s)) return false;
-                cols.add(s);
+        for (int i = 0; i < pos.n; i++) {
+            if (!pos.isColFull(i)) continue;
+            for (int j = i + 1; j < pos.n; j++) {
+                if (pos.isColFull(j) && pos.colsEqual(i, j)) return false;
             }
         }
         return true;
@@ -381,6 +1048,7 @@ public class BinairoGame extends CSPSolver {
 
     public static void main(String[] args) {
         BinairoGame game = new BinairoGame();
+        game.solutionCache = new SolutionCache(256);
         BinairoPosition currentPos = null;
 
         while (true) {
@@ -435,12 +1103,22 @@ public class BinairoGame extends CSPSolver {
         // 2. Si on n'utilise pas LCV (qui trie intelligemment), on mélange !
         // Cela est essentiel pour la génération aléatoire.
         if (!useLCV) {
-            Collections.shuffle(values);
+            Collections.shuffle(values, random);
         }
 
         return values;
     }
 
+    // Même ordre que orderDomainValues sans liste : sans LCV, les deux valeurs sont permutées
+    // par le même tirage que Collections.shuffle (un nextInt(2)), la suite aléatoire est inchangée
+    @Override
+    protected int orderedValues(Position p, int row, int col) {
+        if (useLCV) return super.orderedValues(p, row, col);
+        int mask = ((BinairoPosition) p).getDomainMask(row, col);
+        if (mask != 0b11) return mask == 0 ? 0 : 1 | (mask >>> 1) << 2;
+        return random.nextInt(2) == 0 ? 2 | 1 << 2 : 2 | 1 << 3;
+    }
+
     // --- GENERATEUR ROBUSTE ---
     public BinairoPosition generateGridUI() {
         System.out.print("Taille (pair, ex: 6, 8, 14, 20): ");
@@ -457,115 +1135,287 @@ public class BinairoGame extends CSPSolver {
             return null;
         }
 
-        System.out.println("Génération en cours (avec MRV+Degree+FC+AC3, restart si lent)...");
-
-        // 1. On part d'une grille TOTALEMENT vide
-        // Plus de diagonale aléatoire qui bloque le solveur !
-        BinairoPosition empty = new BinairoPosition(n);
-
-        // 2. Configuration pour pruning fort pendant la génération
-        this.useMRV = true;
-        this.useDegree = true;
-        this.useFC = true;
-        this.useLCV = false; // garder l'aléatoire via shuffle
-        this.useAC3 = false; // AC-3 coûteux à l'init sur grandes tailles
-
-        // 3. Résolution avec limite de temps et redémarrage si nécessaire
-        Position fullSol = null;
-        int attempts = 0;
-        while (attempts < 10 && fullSol == null) {
-            attempts++;
-            this.timeLimitMs = 5000L; // 5s par tentative pour éviter les branches pathologiques
-            fullSol = solve(new BinairoPosition(empty));
+        System.out.print("Nombre d'indices visé (Entrée = puzzle minimal): ");
+        int targetClues = 0;
+        try {
+            String line = scanner.nextLine().trim();
+            if (!line.isEmpty()) targetClues = Integer.parseInt(line);
+        } catch (NumberFormatException e) {
+            System.out.println("Nombre invalide, génération d'un puzzle minimal.");
         }
-        this.timeLimitMs = null; // désactiver la limite pour les autres opérations
 
-        if (fullSol == null) {
+        System.out.println("Génération en cours (MRV+FC+GAC+CBJ, redémarrages de Luby)...");
+        long t0 = System.currentTimeMillis();
+        BinairoPosition puzzle = generatePuzzle(n, targetClues);
+
+        if (puzzle == null) {
             System.out.println("Échec de génération après plusieurs tentatives. Réessayez.");
             return new BinairoPosition(n);
         }
 
-        // 4. Création des trous (Difficulté)
-        BinairoPosition puzzle = new BinairoPosition((BinairoPosition) fullSol);
+        System.out.println("Grille générée avec succès (" + countClues(puzzle) + " indices, solution unique, "
+                + (System.currentTimeMillis() - t0) / 1000.0 + " s) :\n" + puzzle);
+        return puzzle;
+    }
+
+    /**
+     * Génère un puzzle à solution unique : grille complète aléatoire, puis creusement des trous
+     * case par case en ne gardant que les retraits qui préservent l'unicité.
+     * targetClues = 0 : on creuse jusqu'à obtenir un puzzle minimal (aucun indice retirable).
+     * Retourne null si aucune grille complète n'a pu être construite.
+     * Grille complète remplie en parallèle : le premier worker qui aboutit l'emporte, le
+     * résultat n'est pas reproductible.
+     */
+    public BinairoPosition generatePuzzle(int n, int targetClues) {
         Random rand = new Random();
+        BinairoPosition solution = generateSolution(n, rand, true);
+        if (solution == null) return null;
+        return digHoles(solution, targetClues, rand);
+    }
 
-        // On retire environ 60% des cases pour faire le puzzle
-        int cellsToRemove = (n * n) * 60 / 100;
-        int removedCount = 0;
+    /**
+     * Même génération, reproductible : avec un 'rand' semé, la même graine donne le même
+     * puzzle. La grille complète est remplie séquentiellement (redémarrages de Luby compris),
+     * le creusement ne dépend que de l'ordre tiré et des tests d'unicité.
+     */
+    public BinairoPosition generatePuzzle(int n, int targetClues, Random rand) {
+        BinairoPosition solution = generateSolution(n, rand, false);
+        if (solution == null) return null;
+        return digHoles(solution, targetClues, rand);
+    }
 
-        while (removedCount < cellsToRemove) {
-            int r = rand.nextInt(n);
-            int c = rand.nextInt(n);
+    // Grille complète aléatoire, avec redémarrages de Luby si un essai s'enlise
+    private BinairoPosition generateSolution(int n, Random rand, boolean parallel) {
+        // 1. On part d'une grille TOTALEMENT vide
+        // Plus de diagonale aléatoire qui bloque le solveur !
+        BinairoPosition empty = new BinairoPosition(n);
 
-            // Si la case n'est pas déjà vide, on la vide
-            if (puzzle.board[r][c] != BinairoPosition.EMPTY) {
-                // décrémenter compteurs
-                if (puzzle.board[r][c] == 0) { puzzle.rowZeroCount[r]--; puzzle.colZeroCount[c]--; }
-                else if (puzzle.board[r][c] == 1) { puzzle.rowOneCount[r]--; puzzle.colOneCount[c]--; }
+        // 2. Configuration pour pruning fort pendant la génération, sur un solveur dédié (la
+        // configuration de celui-ci n'est pas touchée)
+        // La cohérence sur lignes entières (GAC) remplit une grille vide quasiment sans retour
+        // arrière ; au-delà de LinePatterns.MAX_N elle retombe sur le Forward Checking.
+        // Pas de LCV : garder l'aléatoire via shuffle.
+        // Un échec loin de sa cause (typique au-delà de la table de motifs) remonte directement
+        // au coup fautif au lieu de réexplorer tous les niveaux intermédiaires (cbj)
+        // 3. Le temps de remplissage a une queue lourde (une mauvaise décision en haut de
+        // l'arbre coûte des millions de nœuds) : redémarrages sur budget de nœuds de Luby
+        // (unité 2*n*n), cases et valeurs tirées au sort, nogoods gardés d'un essai à l'autre.
+        // La limite de temps n'est plus qu'un filet de sécurité
+        BinairoGame generator = new BinairoGame(SolverConfig.parse("mrv,fc,gac,cbj").toBuilder()
+                .restarts(RESTART_LUBY, 2L * n * n)
+                .timeLimitMs(50_000L)
+                .build());
+        generator.random = rand;
+        // Les workers explorent des sous-arbres différents : une branche pathologique
+        // n'immobilise plus qu'un cœur, les autres continuent (mais le vainqueur dépend de
+        // l'ordonnancement : séquentiel si la génération doit être reproductible)
+        Position fullSol = parallel ? generator.solveParallel(empty) : generator.solve(empty);
+
+        return fullSol == null ? null : new BinairoPosition((BinairoPosition) fullSol);
+    }
 
-                puzzle.board[r][c] = BinairoPosition.EMPTY;
-                puzzle.resetDomainBoth(r, c);
-                removedCount++;
+    /**
+     * 4. Création des trous (Difficulté), en préservant l'unicité de la solution.
+     * Les cases candidates sont testées par lots en parallèle, chaque test sur sa propre copie
+     * avec son propre solveur. Dans un lot, le premier retrait qui garde une solution unique est
+     * appliqué ; les autres retraits "uniques" sont retestés au lot suivant (ils l'ont été sur
+     * l'ancien puzzle). Un retrait qui casse l'unicité est abandonné pour de bon : avec moins
+     * d'indices, l'ensemble des solutions ne peut que grandir.
+     */
+    private BinairoPosition digHoles(BinairoPosition solution, int targetClues, Random rand) {
+        int n = solution.n;
+        BinairoPosition puzzle = new BinairoPosition(solution);
+        int clues = n * n;
+
+        List<Integer> cells = new ArrayList<>();
+        for (int cell = 0; cell < n * n; cell++) cells.add(cell);
+        Collections.shuffle(cells, rand);
+        Deque<Integer> candidates = new ArrayDeque<>(cells);
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            while (clues > targetClues && !candidates.isEmpty()) {
+                int batch = Math.min(workers, candidates.size());
+                int[] tested = new int[batch];
+                List<Future<Boolean>> results = new ArrayList<>(batch);
+                for (int i = 0; i < batch; i++) {
+                    int cell = candidates.poll();
+                    tested[i] = cell;
+                    BinairoPosition base = puzzle; // lu seulement pendant le lot
+                    results.add(pool.submit(() -> isUniqueWithout(base, cell / n, cell % n)));
+                }
+
+                boolean applied = false;
+                List<Integer> retry = new ArrayList<>();
+                for (int i = 0; i < batch; i++) {
+                    if (!results.get(i).get()) continue; // indice nécessaire : on le garde
+                    if (!applied) {
+                        puzzle.clearCell(tested[i] / n, tested[i] % n);
+                        puzzle.resetDomainBoth(tested[i] / n, tested[i] % n);
+                        clues--;
+                        applied = true;
+                    } else {
+                        retry.add(tested[i]);
+                    }
+                }
+                for (int i = retry.size() - 1; i >= 0; i--) candidates.addFirst(retry.get(i));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec du test d'unicité", e.getCause());
+        } finally {
+            pool.shutdown();
         }
-
-        System.out.println("Grille générée avec succès :\n" + puzzle);
         return puzzle;
     }
 
+    // Test d'unicité du creusement, limité à 2 s (configuration partagée par les workers)
+    private static final SolverConfig UNIQUENESS_CHECK = SolverConfig.parse("mrv,fc,gac,presolve,deduce")
+            .toBuilder().timeLimitMs(2000L).build();
+
+    // La grille privée de l'indice (r, c) a-t-elle toujours une seule solution ?
+    private boolean isUniqueWithout(BinairoPosition puzzle, int r, int c) {
+        BinairoPosition candidate = new BinairoPosition(puzzle);
+        candidate.clearCell(r, c);
+        candidate.resetDomainBoth(r, c);
+
+        // Un solveur par test : statistiques et espaces de travail propres au thread
+        BinairoGame checker = new BinairoGame(UNIQUENESS_CHECK);
+        int count = checker.countSolutions(candidate, 2);
+        // Test non concluant (limite de temps) : on garde l'indice par prudence
+        return count == 1 && !checker.interrupted;
+    }
+
+    private static int countClues(BinairoPosition pos) {
+        int clues = 0;
+        for (int r = 0; r < pos.n; r++) clues += pos.n - pos.rowEmptyCount(r);
+        return clues;
+    }
+
     // --- COMPARATEUR ---
     public void compareAlgorithms(BinairoPosition startPos) {
         System.out.println("\n--- COMPARATIF ---");
         System.out.println(String.format("%-20s | %-8s | %-8s", "Algo", "Temps(s)", "Nœuds"));
         System.out.println("--------------------------------------------");
 
-        // Attention : AC-3 est très lourd sur les petites grilles car il initialise trop d'arcs
-        // Il brille sur les problèmes très contraints complexes.
+        // AC-3 est incrémental (semé par le dernier coup) : il brille sur les problèmes très contraints.
         
-        runTest("BT Simple",    startPos, false, false, false, false, false);
-        runTest("MRV",          startPos, true,  false, false, false, false);
-        runTest("MRV+FC",       startPos, true,  false, false, true,  false);
-        runTest("MRV+LCV",      startPos, true,  false, true,  false, false);
-        runTest("MRV+AC3",      startPos, true,  false, false, false, true);
+        runTest("BT Simple",    startPos, "");
+        runTest("MRV",          startPos, "mrv");
+        runTest("MRV+FC",       startPos, "mrv,fc");
+        runTest("MRV+LCV",      startPos, "mrv,lcv");
+        runTest("MRV+AC3",      startPos, "mrv,ac3");
+        runTest("MRV+GAC",      startPos, "mrv,gac");
+
+        // Même configuration que MRV+FC, répartie sur tous les cœurs
+        BinairoGame parallel = new BinairoGame(SolverConfig.parse("mrv,fc"));
+        parallel.solveParallel(startPos);
+        System.out.println(String.format("%-20s | %-8.4f | %-8d", "MRV+FC (parallèle)", parallel.executionTime, parallel.nodeCount));
+        System.out.println("  nœuds par worker : " + Arrays.toString(parallel.workerNodeCounts));
+
+        // Course entre configurations : le premier membre qui conclut arrête les autres
+        try (PortfolioSolver portfolio = new PortfolioSolver(PortfolioSolver.defaultConfigs(null), random.nextLong())) {
+            PortfolioSolver.Result race = portfolio.solve(startPos);
+            System.out.println(String.format("%-20s | %-8.4f | %-8d", "Portefeuille", race.result.executionTime, race.totalNodes));
+            System.out.println("  vainqueur : " + race.winnerName() + " (" + race.result.nodeCount + " nœuds)");
+        }
     }
 
-    private void runTest(String name, BinairoPosition p, boolean mrv, boolean deg, boolean lcv, boolean fc, boolean ac3) {
-        this.useMRV = mrv; this.useDegree = deg; this.useLCV = lcv; 
-        this.useFC = fc; this.useAC3 = ac3;
-        solve(new BinairoPosition(p));
-        System.out.println(String.format("%-20s | %-8.4f | %-8d", name, executionTime, nodeCount));
+    // Un solveur par test : la configuration de celui-ci n'est pas modifiée
+    private void runTest(String name, BinairoPosition p, String heuristics) {
+        BinairoGame solver = new BinairoGame(SolverConfig.parse(heuristics));
+        solver.solve(p);
+        System.out.println(String.format("%-20s | %-8.4f | %-8d", name, solver.executionTime, solver.nodeCount));
+    }
+
+    /**
+     * solve avec le cache de solutions : une grille déjà résolue (ou une de ses transformées
+     * par symétrie ou échange 0/1) est servie sans recherche (nodeCount = 0). Les grilles sans
+     * solution ou interrompues ne sont pas mises en cache.
+     */
+    public Position solveCached(BinairoPosition pos) {
+        cacheHit = false;
+        if (solutionCache == null) return solve(pos);
+        long t0 = System.nanoTime();
+        SolutionCache.Key key = SolutionCache.keyOf(pos);
+        BinairoPosition cached = solutionCache.get(key);
+        if (cached != null) {
+            this.cacheHit = true;
+            this.nodeCount = 0;
+            this.interrupted = false;
+            if (metrics != null) metrics.reset();
+            this.executionTime = (System.nanoTime() - t0) / 1e9;
+            return cached;
+        }
+        Position res = solve(pos);
+        if (res != null) solutionCache.put(key, (BinairoPosition) res);
+        return res;
     }
 
     // --- RESOLUTION UI ---
     public void solveAutoUI(BinairoPosition pos) {
-        System.out.print("MRV? (o/n): "); boolean mrv = scanner.nextLine().equalsIgnoreCase("o");
-        System.out.print("Degree? (o/n): "); boolean deg = scanner.nextLine().equalsIgnoreCase("o");
-        System.out.print("LCV? (o/n): "); boolean lcv = scanner.nextLine().equalsIgnoreCase("o");
-        System.out.print("Forward Check? (o/n): "); boolean fc = scanner.nextLine().equalsIgnoreCase("o");
-        System.out.print("AC-3? (o/n): "); boolean ac3 = scanner.nextLine().equalsIgnoreCase("o");
+        System.out.print("Configuration automatique (selon la grille)? (o/n): ");
+        SolverConfig config;
+        if (scanner.nextLine().equalsIgnoreCase("o")) {
+            // Table apprise sur le banc d'essai : point le plus proche des caractéristiques
+            AutoConfig.Features features = AutoConfig.Features.of(pos);
+            config = AutoConfig.defaultTable().choose(pos);
+            System.out.println(features + " -> " + config);
+        } else {
+            System.out.print("MRV? (o/n): "); boolean mrv = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("Degree? (o/n): "); boolean deg = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("dom/wdeg (poids des conflits)? (o/n): "); boolean wdeg = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("LCV? (o/n): "); boolean lcv = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("Forward Check? (o/n): "); boolean fc = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("AC-3? (o/n): "); boolean ac3 = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("Propagation adaptative (FC/AC-3 selon la profondeur)? (o/n): "); boolean adaptive = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("GAC lignes entières? (o/n): "); boolean gac = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("Déduction par règles? (o/n): "); boolean rules = scanner.nextLine().equalsIgnoreCase("o");
+            System.out.print("Retour arrière dirigé par les conflits? (o/n): "); boolean cbj = scanner.nextLine().equalsIgnoreCase("o");
+            config = SolverConfig.builder()
+                    .mrv(mrv).degree(deg).lcv(lcv).fc(fc).ac3(ac3).gac(gac)
+                    .presolve(rules).deduction(rules).backjumping(cbj).wdeg(wdeg).adaptive(adaptive)
+                    .build();
+        }
 
-        this.useMRV = mrv; this.useDegree = deg; this.useLCV = lcv; this.useFC = fc; this.useAC3 = ac3;
-        
-        Position res = solve(new BinairoPosition(pos));
+        // Solveur configuré pour cette résolution, qui partage le cache de celui-ci
+        BinairoGame solver = new BinairoGame(config.toBuilder()
+                .metrics(true)
+                .build());
+        solver.solutionCache = solutionCache;
+        Position res = solver.solveCached(pos);
+        if (solver.cacheHit) System.out.println("(solution en cache, " + solutionCache + ")");
         if(res != null) System.out.println(res);
-        else System.out.println("Pas de solution.");
+        else System.out.println(solver.interrupted ? "Limite de temps atteinte." : "Pas de solution.");
+        System.out.println(String.format("Nœuds : %d, temps : %.4f s", solver.nodeCount, solver.executionTime));
+        System.out.println(solver.metrics.snapshot());
+
+        // Vérification d'unicité : on s'arrête dès la deuxième solution
+        if (res != null) {
+            int count = solver.countSolutions(pos, 2);
+            if (!solver.interrupted) System.out.println(count == 1 ? "Solution unique." : "Plusieurs solutions possibles.");
+        }
     }
     
     // --- MANUEL ---
     public void playManual(BinairoPosition pos) {
         BinairoPosition cur = new BinairoPosition(pos);
+        // Indices calculés par un solveur dédié (GAC), qui partage le cache de celui-ci
+        BinairoGame hints = new BinairoGame(SolverConfig.parse("mrv,fc,gac"));
+        hints.solutionCache = solutionCache;
         while(!isComplete(cur)) {
             System.out.println(cur);
             System.out.print("Coup (lig col val) ou HINT: ");
             String s = scanner.nextLine().toUpperCase();
             if(s.equals("EXIT")) return;
             if(s.equals("HINT")) {
-                this.useMRV=true; this.useFC=true; this.useAC3=false;
-                Position sol = solve(new BinairoPosition(cur));
+                Position sol = hints.solveCached(cur);
                 if(sol!=null) {
                     BinairoPosition solved = (BinairoPosition)sol;
                     outer: for(int i=0;i<cur.n;i++) for(int j=0;j<cur.n;j++) 
-                        if(cur.board[i][j]==-1) { System.out.println("Indice: "+solved.board[i][j]+" en "+i+","+j); break outer;}
+                        if(cur.isEmpty(i,j)) { System.out.println("Indice: "+solved.get(i,j)+" en "+i+","+j); break outer;}
                 } else System.out.println("Impossible!");
                 continue;
             }
@@ -573,12 +1423,8 @@ public class BinairoGame extends CSPSolver {
                 String[] p = s.split(" ");
                 int r=Integer.parseInt(p[0]), c=Integer.parseInt(p[1]), v=Integer.parseInt(p[2]);
                 if(checkMoveRules(cur,r,c,v)) {
-                    // mettre à jour compteurs
-                    if (cur.board[r][c] == 0) { cur.rowZeroCount[r]--; cur.colZeroCount[c]--; }
-                    else if (cur.board[r][c] == 1) { cur.rowOneCount[r]--; cur.colOneCount[c]--; }
-                    cur.board[r][c]=v;
-                    if (v==0) { cur.rowZeroCount[r]++; cur.colZeroCount[c]++; }
-                    else { cur.rowOneCount[r]++; cur.colOneCount[c]++; }
+                    // les compteurs suivent automatiquement les bitboards
+                    cur.setCell(r,c,v);
                 }
                 else System.out.println("Invalide!");
             } catch(Exception e) { System.out.println("Erreur format."); }
@@ -1,81 +1,692 @@
 public class BinairoPosition extends Position {
-    
+
     // Constantes pour lisibilité
     public static final int EMPTY = -1; // cellule vide car zéro est une valeur valide
     public static final int ZERO = 0;
     public static final int ONE = 1;
 
     public int n;          // Taille de la grille (ex: 6, 8, 10)
-    public int[][] board;  // La matrice de jeu
+    public int words;      // Nombre de long par ligne : 1 jusqu'à 64, variante large au-delà
+
+    // Bitboards : le bit k de la ligne i (mots [i*words, (i+1)*words[) représente la case k.
+    // "Filled" = case assignée, "Ones" = case assignée à 1.
+    // On garde les deux orientations pour que les règles ligne ET colonne soient de simples décalages.
+    public long[] rowFilled;
+    public long[] rowOnes;
+    public long[] colFilled;
+    public long[] colOnes;
+
+    // Domaines (ligne-major) : bit à 1 = valeur autorisée pour la case
+    public long[] rowAllowZero;
+    public long[] rowAllowOne;
+
+    // Motifs des lignes / colonnes complètes, tenus à jour à chaque pose et annulation
+    // (règle d'unicité). null dans la variante large : on retombe alors sur des comparaisons directes.
+    public LineSet rowLines;
+    public LineSet colLines;
+
+    // Seaux MRV maintenus à chaque modification de ligne : bitsets SUR LES LIGNES (words mots)
+    // indiquant les lignes qui contiennent au moins une case vide / vide à domaine singleton /
+    // vide à domaine vide. Les cases d'un seau se retrouvent ensuite par masques dans la ligne.
+    public long[] rowsWithEmpty;
+    public long[] rowsWithSingle;
+    public long[] rowsWithWipeout;
+
+    // Motifs encore compatibles de chaque ligne (cohérence généralisée, voir LinePatterns) :
+    // bitsets de patterns.words mots, lignes 0..n-1 puis colonnes n..2n-1. null = désactivé.
+    // Toute affectation filtre la ligne et la colonne de la case.
+    public LinePatterns patterns;
+    public long[] lineCandidates;
 
-    // Domaines représentés via un masque de bits par cellule:
-    // 1 = valeur 0 autorisée, 2 = valeur 1 autorisée, 3 = {0,1}
-    public short[][] domainMask;
+    // Raisons pour le retour arrière dirigé par les conflits (CSPSolver.useBackjumping) : pour
+    // chaque ligne (0..n-1) et colonne (n..2n-1), bitset des niveaux de décision qui ont influé
+    // sur l'état d'une de ses cases (reasonWords mots par ligne). Toute modification d'une case
+    // fusionne les raisons de sa ligne et de sa colonne. uniqueReason : union des raisons des
+    // lignes puis des colonnes complètes (règle d'unicité). conflict : raison du premier domaine
+    // vidé ou de la contradiction signalée depuis clearConflict. null = désactivé.
+    public int reasonWords;
+    public long[] lineReason;
+    public long[] uniqueReason;
+    public long[] conflict;
+    public boolean conflictKnown;
 
-    // Compteurs parité pour accélérer les vérifications
-    public int[] rowZeroCount;
-    public int[] rowOneCount;
-    public int[] colZeroCount;
-    public int[] colOneCount;
+    // Trail pour le mode "en place" : chaque affectation et chaque réduction de domaine
+    // y est empilée, et le backtracking dépile au lieu de copier la position.
+    // Entrée = (case << 4) | (type << 2) | ancien masque de domaine. null = pas d'enregistrement.
+    // Une entrée TRAIL_PATTERN ou TRAIL_REASON renvoie au sommet du trail des mots
+    // (indice dans lineCandidates ou lineReason/uniqueReason + ancienne valeur).
+    private static final int TRAIL_DOMAIN = 0;
+    private static final int TRAIL_ASSIGN = 1;
+    private static final int TRAIL_PATTERN = 2;
+    private static final int TRAIL_REASON = 3;
+    public int[] trail;
+    public int trailSize;
+    private int[] wordTrailIndex;
+    private long[] wordTrailValue;
+    private int wordTrailSize;
 
     public BinairoPosition(int n) {
         this.n = n;
-        this.board = new int[n][n];
-        this.domainMask = new short[n][n];
-        this.rowZeroCount = new int[n];
-        this.rowOneCount = new int[n];
-        this.colZeroCount = new int[n];
-        this.colOneCount = new int[n];
-
-        // Initialisation : Tout est vide (-1) et Domaines complets {0, 1}
+        this.words = (n + 63) >>> 6;
+        this.rowFilled = new long[n * words];
+        this.rowOnes = new long[n * words];
+        this.colFilled = new long[n * words];
+        this.colOnes = new long[n * words];
+        this.rowAllowZero = new long[n * words];
+        this.rowAllowOne = new long[n * words];
+        this.rowsWithEmpty = new long[words];
+        this.rowsWithSingle = new long[words];
+        this.rowsWithWipeout = new long[words];
+        if (words == 1) {
+            this.rowLines = new LineSet(n);
+            this.colLines = new LineSet(n);
+        }
+
+        // Initialisation : Tout est vide et Domaines complets {0, 1}
         for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                board[i][j] = EMPTY;
-                domainMask[i][j] = 0b11; // {0,1}
+            for (int w = 0; w < words; w++) {
+                long full = lineMask(w);
+                rowAllowZero[i * words + w] = full;
+                rowAllowOne[i * words + w] = full;
             }
+            refreshBuckets(i);
         }
     }
 
     // Essentiel pour la récursion : on doit dupliquer l'état sans lier les références
     public BinairoPosition(BinairoPosition other) {
         this.n = other.n;
-        this.board = new int[n][n];
-        this.domainMask = new short[n][n];
-        this.rowZeroCount = new int[n];
-        this.rowOneCount = new int[n];
-        this.colZeroCount = new int[n];
-        this.colOneCount = new int[n];
-
-        // 1. Copier la grille
-        for (int i = 0; i < n; i++) {
-            System.arraycopy(other.board[i], 0, this.board[i], 0, n);
-            System.arraycopy(other.domainMask[i], 0, this.domainMask[i], 0, n);
+        this.words = other.words;
+        // Six copies de tableaux plats de longs, au lieu de n lignes int[] + n lignes short[] + 4 compteurs
+        this.rowFilled = other.rowFilled.clone();
+        this.rowOnes = other.rowOnes.clone();
+        this.colFilled = other.colFilled.clone();
+        this.colOnes = other.colOnes.clone();
+        this.rowAllowZero = other.rowAllowZero.clone();
+        this.rowAllowOne = other.rowAllowOne.clone();
+        this.rowsWithEmpty = other.rowsWithEmpty.clone();
+        this.rowsWithSingle = other.rowsWithSingle.clone();
+        this.rowsWithWipeout = other.rowsWithWipeout.clone();
+        if (other.rowLines != null) {
+            this.rowLines = new LineSet(other.rowLines);
+            this.colLines = new LineSet(other.colLines);
+        }
+        if (other.patterns != null) {
+            this.patterns = other.patterns;
+            this.lineCandidates = other.lineCandidates.clone();
         }
+        if (other.lineReason != null) {
+            this.reasonWords = other.reasonWords;
+            this.lineReason = other.lineReason.clone();
+            this.uniqueReason = other.uniqueReason.clone();
+            this.conflict = other.conflict.clone();
+            this.conflictKnown = other.conflictKnown;
+        }
+    }
+
+    // Masque des bits valides du mot w d'une ligne (les bits au-delà de n restent à 0)
+    private long lineMask(int w) {
+        int bits = n - (w << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    // Utilitaires cases
+    public int get(int r, int c) {
+        int i = r * words + (c >>> 6);
+        long bit = 1L << c;
+        if ((rowFilled[i] & bit) == 0) return EMPTY;
+        return (rowOnes[i] & bit) != 0 ? ONE : ZERO;
+    }
+
+    public boolean isEmpty(int r, int c) {
+        return (rowFilled[r * words + (c >>> 6)] & (1L << c)) == 0;
+    }
+
+    // Pose la valeur dans les deux orientations (ne touche pas au domaine)
+    public void setCell(int r, int c, int val) {
+        int ri = r * words + (c >>> 6), ci = c * words + (r >>> 6);
+        long rb = 1L << c, cb = 1L << r;
+        forgetCompletedLines(r, c);
+        rowFilled[ri] |= rb;
+        colFilled[ci] |= cb;
+        if (val == ONE) { rowOnes[ri] |= rb; colOnes[ci] |= cb; }
+        else { rowOnes[ri] &= ~rb; colOnes[ci] &= ~cb; }
+        if (rowLines != null) {
+            if (rowFilled[r] == lineMask(0)) rowLines.add(rowOnes[r]);
+            if (colFilled[c] == lineMask(0)) colLines.add(colOnes[c]);
+        }
+        refreshBuckets(r);
+    }
+
+    // Vide la case dans les deux orientations (ne touche pas au domaine)
+    public void clearCell(int r, int c) {
+        int ri = r * words + (c >>> 6), ci = c * words + (r >>> 6);
+        long rb = 1L << c, cb = 1L << r;
+        forgetCompletedLines(r, c);
+        rowFilled[ri] &= ~rb; rowOnes[ri] &= ~rb;
+        colFilled[ci] &= ~cb; colOnes[ci] &= ~cb;
+        refreshBuckets(r);
+    }
+
+    // Retire des ensembles la ligne r et la colonne c si elles étaient complètes (avant modification)
+    private void forgetCompletedLines(int r, int c) {
+        if (rowLines == null) return;
+        if (rowFilled[r] == lineMask(0)) rowLines.remove(rowOnes[r]);
+        if (colFilled[c] == lineMask(0)) colLines.remove(colOnes[c]);
+    }
+
+    // Compteurs de parité : un popcount par mot au lieu d'un tableau de compteurs
+    public int rowCount(int r, int val) { return count(rowFilled, rowOnes, r, val); }
+
+    public int colCount(int c, int val) { return count(colFilled, colOnes, c, val); }
+
+    public int rowEmptyCount(int r) { return n - count(rowFilled, null, r, EMPTY); }
+
+    public int colEmptyCount(int c) { return n - count(colFilled, null, c, EMPTY); }
+
+    // val == EMPTY : nombre de cases assignées de la ligne
+    private int count(long[] filled, long[] ones, int line, int val) {
+        int total = 0;
+        for (int w = line * words, end = w + words; w < end; w++) {
+            long m = val == ONE ? ones[w] : val == ZERO ? filled[w] & ~ones[w] : filled[w];
+            total += Long.bitCount(m);
+        }
+        return total;
+    }
+
+    // Cases vides de toute la grille : un popcount par mot des lignes
+    public int emptyCount() {
+        int filled = 0;
+        for (long w : rowFilled) filled += Long.bitCount(w);
+        return n * n - filled;
+    }
+
+    public boolean isRowFull(int r) { return rowEmptyCount(r) == 0; }
+
+    public boolean isColFull(int c) { return colEmptyCount(c) == 0; }
+
+    public boolean isFull() {
+        return nextSetBit(rowsWithEmpty, 0) < 0;
+    }
+
+    // La ligne r (resp. colonne c), complétée par 'val' en (r, c), serait-elle identique
+    // à une ligne (resp. colonne) déjà complète ? Suppose que (r, c) est sa seule case vide.
+    public boolean rowWouldDuplicate(int r, int c, int val) {
+        return wouldDuplicate(rowFilled, rowOnes, rowLines, r, c, val);
+    }
+
+    public boolean colWouldDuplicate(int c, int r, int val) {
+        return wouldDuplicate(colFilled, colOnes, colLines, c, r, val);
+    }
 
-        // 2. Copier les compteurs
-        System.arraycopy(other.rowZeroCount, 0, this.rowZeroCount, 0, n);
-        System.arraycopy(other.rowOneCount, 0, this.rowOneCount, 0, n);
-        System.arraycopy(other.colZeroCount, 0, this.colZeroCount, 0, n);
-        System.arraycopy(other.colOneCount, 0, this.colOneCount, 0, n);
+    // Même question quand les deux seules cases vides de la ligne reçoivent 'val' en k et
+    // 'val2' en k2 (pose virtuelle, la position n'est pas modifiée)
+    public boolean rowWouldDuplicate(int r, int c, int val, int c2, int val2) {
+        return wouldDuplicate(rowFilled, rowOnes, rowLines, r, c, val, c2, val2);
+    }
+
+    public boolean colWouldDuplicate(int c, int r, int val, int r2, int val2) {
+        return wouldDuplicate(colFilled, colOnes, colLines, c, r, val, r2, val2);
+    }
+
+    private boolean wouldDuplicate(long[] filled, long[] ones, LineSet lines, int line, int k, int val) {
+        return wouldDuplicate(filled, ones, lines, line, k, val, k, val);
+    }
+
+    private boolean wouldDuplicate(long[] filled, long[] ones, LineSet lines, int line, int k, int val, int k2, int val2) {
+        long bit = val == ONE ? 1L << k : 0;
+        long bit2 = val2 == ONE ? 1L << k2 : 0;
+        if (lines != null) return lines.contains(ones[line] | bit | bit2);
+        // Variante large : comparaison avec chaque ligne complète
+        int kw = k >>> 6, kw2 = k2 >>> 6;
+        for (int other = 0; other < n; other++) {
+            if (other == line || count(filled, null, other, EMPTY) != n) continue;
+            boolean same = true;
+            for (int w = 0; w < words && same; w++) {
+                long candidate = ones[line * words + w] | (w == kw ? bit : 0) | (w == kw2 ? bit2 : 0);
+                same = candidate == ones[other * words + w];
+            }
+            if (same) return true;
+        }
+        return false;
+    }
+
+    public boolean rowsEqual(int a, int b) { return linesEqual(rowOnes, a, b); }
+
+    public boolean colsEqual(int a, int b) { return linesEqual(colOnes, a, b); }
+
+    // Deux lignes complètes sont égales ssi leurs masques de 1 le sont
+    private boolean linesEqual(long[] ones, int a, int b) {
+        for (int w = 0; w < words; w++) {
+            if (ones[a * words + w] != ones[b * words + w]) return false;
+        }
+        return true;
+    }
+
+    // Fenêtre de 5 bits (k-2 .. k+2) des cases égales à 'val' autour de la case k de la ligne/colonne.
+    // Le bit 2 correspond à la case elle-même ; les positions hors grille valent 0.
+    public int rowWindow(int r, int c, int val) { return window(rowFilled, rowOnes, r, c, val); }
+
+    public int colWindow(int c, int r, int val) { return window(colFilled, colOnes, c, r, val); }
+
+    private int window(long[] filled, long[] ones, int line, int k, int val) {
+        if (words == 1) {
+            long same = filled[line] & (val == ONE ? ones[line] : ~ones[line]);
+            long shifted = k >= 2 ? same >>> (k - 2) : same << (2 - k);
+            return (int) (shifted & 0b11111);
+        }
+        // Variante large : la fenêtre peut chevaucher deux mots
+        int w = 0;
+        for (int d = -2; d <= 2; d++) {
+            int idx = k + d;
+            if (idx < 0 || idx >= n) continue;
+            int i = line * words + (idx >>> 6);
+            long bit = 1L << idx;
+            if ((filled[i] & bit) != 0 && ((ones[i] & bit) != 0) == (val == ONE)) w |= 1 << (d + 2);
+        }
+        return w;
     }
 
     // Utilitaires domaine
+    // Masque 2 bits de la case : 1 = valeur 0 autorisée, 2 = valeur 1 autorisée, 3 = {0,1}
+    public int getDomainMask(int r, int c) {
+        int i = r * words + (c >>> 6);
+        long bit = 1L << c;
+        return ((rowAllowZero[i] & bit) != 0 ? 0b01 : 0) | ((rowAllowOne[i] & bit) != 0 ? 0b10 : 0);
+    }
+
+    public void setDomainMask(int r, int c, int mask) {
+        int i = r * words + (c >>> 6);
+        long bit = 1L << c;
+        if ((mask & 0b01) != 0) rowAllowZero[i] |= bit; else rowAllowZero[i] &= ~bit;
+        if ((mask & 0b10) != 0) rowAllowOne[i] |= bit; else rowAllowOne[i] &= ~bit;
+        refreshBuckets(r);
+    }
+
     public int getDomainSize(int r, int c) {
-        short m = domainMask[r][c];
+        int m = getDomainMask(r, c);
         if (m == 0) return 0;
         if (m == 3) return 2;
         return 1;
     }
 
+    // Affectation complète d'une case (valeur + domaine singleton), enregistrée sur le trail si actif
+    public void assign(int r, int c, int val) {
+        assign(r, c, val, -1);
+    }
+
+    // Affectation imposée par la ligne (0..n-1) ou colonne (n..2n-1) 'source' (-1 = cause inconnue) :
+    // seules les raisons de la source sont transmises (voir lineReason)
+    public void assign(int r, int c, int val, int source) {
+        if (trail != null) pushTrail(r, c, TRAIL_ASSIGN);
+        if (lineReason != null) noteChange(r, c, source);
+        setCell(r, c, val);
+        setDomainSingle(r, c, val);
+        if (patterns != null) {
+            restrictLine(r, c, val);
+            restrictLine(n + c, r, val);
+        }
+        if (lineReason != null) {
+            if (isRowFull(r)) orReason(uniqueReason, 0, lineReason, r * reasonWords);
+            if (isColFull(c)) orReason(uniqueReason, reasonWords, lineReason, (n + c) * reasonWords);
+        }
+    }
+
     public void setDomainSingle(int r, int c, int val) {
-        domainMask[r][c] = (short) (val == ZERO ? 0b01 : 0b10);
+        setDomainMask(r, c, val == ZERO ? 0b01 : 0b10);
     }
 
-    public void resetDomainBoth(int r, int c) { domainMask[r][c] = 0b11; }
+    public void resetDomainBoth(int r, int c) { setDomainMask(r, c, 0b11); }
+
+    public void removeFromDomain(int r, int c, int val) {
+        removeFromDomain(r, c, val, -1);
+    }
+
+    // Retrait imposé par la ligne ou colonne 'source' (-1 = cause inconnue), comme assign
+    public void removeFromDomain(int r, int c, int val, int source) {
+        int old = getDomainMask(r, c);
+        int m = old & ~(val == ZERO ? 0b01 : 0b10);
+        if (m == old) return;
+        if (trail != null) pushTrail(r, c, TRAIL_DOMAIN);
+        if (lineReason != null) {
+            noteChange(r, c, source);
+            if (m == 0 && !conflictKnown) addConflictCell(r, c);
+        }
+        setDomainMask(r, c, m);
+    }
 
     public boolean domainAllows(int r, int c, int val) {
-        short m = domainMask[r][c];
-        return val == ZERO ? (m & 0b01) != 0 : (m & 0b10) != 0;
+        long[] allow = val == ZERO ? rowAllowZero : rowAllowOne;
+        return (allow[r * words + (c >>> 6)] & (1L << c)) != 0;
+    }
+
+    // --- Seaux MRV ---
+
+    // Cases vides d'une colonne (variante 64 bits uniquement, comme les LineSet)
+    public long colEmptyMask(int c) {
+        return ~colFilled[c] & lineMask(0);
+    }
+
+    // Cases vides du mot w de la ligne r, toutes / à domaine singleton / à domaine vide
+    public long emptyMask(int r, int w) {
+        return ~rowFilled[r * words + w] & lineMask(w);
+    }
+
+    public long singleMask(int r, int w) {
+        int i = r * words + w;
+        return emptyMask(r, w) & (rowAllowZero[i] ^ rowAllowOne[i]);
+    }
+
+    public long wipeoutMask(int r, int w) {
+        int i = r * words + w;
+        return emptyMask(r, w) & ~(rowAllowZero[i] | rowAllowOne[i]);
+    }
+
+    // Recalcule l'appartenance de la ligne r aux trois seaux : O(words), appelé à chaque écriture
+    private void refreshBuckets(int r) {
+        long empty = 0, single = 0, wipeout = 0;
+        for (int w = 0; w < words; w++) {
+            empty |= emptyMask(r, w);
+            single |= singleMask(r, w);
+            wipeout |= wipeoutMask(r, w);
+        }
+        setRowFlag(rowsWithEmpty, r, empty != 0);
+        setRowFlag(rowsWithSingle, r, single != 0);
+        setRowFlag(rowsWithWipeout, r, wipeout != 0);
+    }
+
+    private static void setRowFlag(long[] rows, int r, boolean on) {
+        if (on) rows[r >>> 6] |= 1L << r; else rows[r >>> 6] &= ~(1L << r);
+    }
+
+    // Prochain bit à 1 à partir de 'from' dans un bitset multi-mots, -1 s'il n'y en a plus
+    public static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) return -1;
+        long m = bits[w] & (-1L << from);
+        while (true) {
+            if (m != 0) return (w << 6) + Long.numberOfTrailingZeros(m);
+            if (++w == bits.length) return -1;
+            m = bits[w];
+        }
+    }
+
+    // --- Motifs de lignes ---
+
+    /**
+     * Active le suivi des motifs compatibles : chaque ligne part de tous les motifs légaux,
+     * filtrés par les cases posées et les domaines déjà réduits. Reconstruit à chaque appel,
+     * à faire avant la recherche (non enregistré sur le trail).
+     */
+    public void enablePatterns(LinePatterns table) {
+        this.patterns = table;
+        int w = table.words;
+        this.lineCandidates = new long[2 * n * w];
+        for (int line = 0; line < 2 * n; line++) {
+            java.util.Arrays.fill(lineCandidates, line * w, (line + 1) * w, -1L);
+            lineCandidates[(line + 1) * w - 1] = table.lastWordMask();
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int mask = getDomainMask(r, c);
+                int v = get(r, c);
+                if (v != EMPTY) mask = v == ZERO ? 0b01 : 0b10;
+                // Domaine vide : les deux filtres vident la ligne, la propagation échouera
+                if ((mask & 0b10) == 0) { restrictLine(r, c, ZERO); restrictLine(n + c, r, ZERO); }
+                if ((mask & 0b01) == 0) { restrictLine(r, c, ONE); restrictLine(n + c, r, ONE); }
+            }
+        }
+    }
+
+    // Ne garde, dans la ligne 'line', que les motifs où la case k vaut 'val' ; true si la ligne a changé
+    public boolean restrictLine(int line, int k, int val) {
+        int w = patterns.words;
+        int base = line * w;
+        int from = patterns.offset(k, val);
+        boolean changed = false;
+        for (int i = 0; i < w; i++) {
+            long old = lineCandidates[base + i];
+            long now = old & patterns.withValue[from + i];
+            if (now != old) {
+                setCandidateWord(base + i, now);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Retire le motif d'indice 'index' de la ligne ; true s'il y était
+    public boolean removePattern(int line, int index) {
+        int i = line * patterns.words + (index >>> 6);
+        long bit = 1L << index;
+        if ((lineCandidates[i] & bit) == 0) return false;
+        setCandidateWord(i, lineCandidates[i] & ~bit);
+        return true;
+    }
+
+    private void setCandidateWord(int i, long value) {
+        if (trail != null) pushWord(TRAIL_PATTERN, i, lineCandidates[i]);
+        lineCandidates[i] = value;
+    }
+
+    // --- Raisons (niveaux de décision) ---
+
+    /**
+     * Active le suivi des raisons pour des niveaux de décision 1..levels (le niveau 0, celui des
+     * indices et de la préparation, n'est jamais noté). Repart de raisons vides, à faire avant
+     * la recherche (non enregistré sur le trail).
+     */
+    public void enableReasons(int levels) {
+        this.reasonWords = (levels + 64) >>> 6;
+        this.lineReason = new long[2 * n * reasonWords];
+        this.uniqueReason = new long[2 * reasonWords];
+        this.conflict = new long[reasonWords];
+        this.conflictKnown = false;
+    }
+
+    public void disableReasons() {
+        this.lineReason = null;
+        this.uniqueReason = null;
+        this.conflict = null;
+    }
+
+    // La décision du niveau 'level' porte sur (r, c) : sa ligne et sa colonne en dépendent
+    public void markDecision(int r, int c, int level) {
+        int w = level >>> 6;
+        long bit = 1L << level;
+        setReasonWord(lineReason, r * reasonWords + w, lineReason[r * reasonWords + w] | bit);
+        setReasonWord(lineReason, (n + c) * reasonWords + w, lineReason[(n + c) * reasonWords + w] | bit);
+    }
+
+    // La ligne 'into' dépend désormais aussi de tout ce dont dépend la ligne 'from'
+    public void mergeReason(int into, int from) {
+        orReason(lineReason, into * reasonWords, lineReason, from * reasonWords);
+    }
+
+    /**
+     * Ajoute à 'into' les niveaux dont dépend l'état de la case (r, c) : raisons de sa ligne et de
+     * sa colonne, et des lignes complètes de même orientation quand la règle d'unicité peut y
+     * jouer (ligne à 2 cases vides au plus).
+     */
+    public void orCellReason(int r, int c, long[] into) {
+        int w = reasonWords;
+        boolean rowNear = rowEmptyCount(r) <= 2, colNear = colEmptyCount(c) <= 2;
+        for (int i = 0; i < w; i++) {
+            long u = lineReason[r * w + i] | lineReason[(n + c) * w + i];
+            if (rowNear) u |= uniqueReason[i];
+            if (colNear) u |= uniqueReason[w + i];
+            into[i] |= u;
+        }
+    }
+
+    // Oublie la contradiction précédente (avant chaque inférence)
+    public void clearConflict() {
+        java.util.Arrays.fill(conflict, 0);
+        conflictKnown = false;
+    }
+
+    // La contradiction dépend de la ligne (0..n-1) ou colonne (n..2n-1) 'line' (et des lignes
+    // complètes de même orientation si elle a 2 cases vides au plus)
+    public void addConflictLine(int line) {
+        boolean isRow = line < n;
+        boolean near = (isRow ? rowEmptyCount(line) : colEmptyCount(line - n)) <= 2;
+        for (int i = 0; i < reasonWords; i++) {
+            conflict[i] |= lineReason[line * reasonWords + i];
+            if (near) conflict[i] |= uniqueReason[(isRow ? 0 : reasonWords) + i];
+        }
+        conflictKnown = true;
+    }
+
+    // La contradiction dépend de l'état de la case (r, c)
+    public void addConflictCell(int r, int c) {
+        orCellReason(r, c, conflict);
+        conflictKnown = true;
+    }
+
+    // La case (r, c) change à cause de la ligne 'source' (r ou n + c ; -1 = cause inconnue, les
+    // deux) : sa ligne et sa colonne prennent en plus les raisons de la cause
+    private void noteChange(int r, int c, int source) {
+        int w = reasonWords;
+        int a = r * w, b = (n + c) * w;
+        boolean fromRow = source != n + c, fromCol = source != r;
+        boolean rowNear = fromRow && rowEmptyCount(r) <= 2, colNear = fromCol && colEmptyCount(c) <= 2;
+        for (int i = 0; i < w; i++) {
+            long cause = (fromRow ? lineReason[a + i] : 0) | (fromCol ? lineReason[b + i] : 0);
+            if (rowNear) cause |= uniqueReason[i];
+            if (colNear) cause |= uniqueReason[w + i];
+            setReasonWord(lineReason, a + i, lineReason[a + i] | cause);
+            setReasonWord(lineReason, b + i, lineReason[b + i] | cause);
+        }
+    }
+
+    private void orReason(long[] into, int at, long[] from, int fromAt) {
+        for (int i = 0; i < reasonWords; i++) {
+            setReasonWord(into, at + i, into[at + i] | from[fromAt + i]);
+        }
+    }
+
+    // Écrit un mot de raisons (lineReason ou uniqueReason, indices de uniqueReason décalés
+    // après ceux de lineReason sur le trail) en l'enregistrant s'il change
+    private void setReasonWord(long[] reasons, int i, long value) {
+        if (reasons[i] == value) return;
+        if (trail != null) {
+            pushWord(TRAIL_REASON, reasons == lineReason ? i : lineReason.length + i, reasons[i]);
+        }
+        reasons[i] = value;
+    }
+
+    private void pushWord(int kind, int i, long old) {
+        if (wordTrailIndex == null) {
+            wordTrailIndex = new int[64];
+            wordTrailValue = new long[64];
+        } else if (wordTrailSize == wordTrailIndex.length) {
+            wordTrailIndex = java.util.Arrays.copyOf(wordTrailIndex, wordTrailSize * 2);
+            wordTrailValue = java.util.Arrays.copyOf(wordTrailValue, wordTrailSize * 2);
+        }
+        wordTrailIndex[wordTrailSize] = i;
+        wordTrailValue[wordTrailSize++] = old;
+        if (trailSize == trail.length) trail = java.util.Arrays.copyOf(trail, trailSize * 2);
+        trail[trailSize++] = kind << 2;
+    }
+
+    // --- Trail ---
+
+    // Active l'enregistrement des modifications (mode en place)
+    public void enableTrail() {
+        if (trail == null) trail = new int[Math.max(16, 2 * n * n)];
+    }
+
+    public int trailMark() { return trailSize; }
+
+    private void pushTrail(int r, int c, int kind) {
+        if (trailSize == trail.length) trail = java.util.Arrays.copyOf(trail, trailSize * 2);
+        trail[trailSize++] = ((r * n + c) << 4) | (kind << 2) | getDomainMask(r, c);
+    }
+
+    // Dépile le trail jusqu'à la marque : les cases affectées redeviennent vides,
+    // chaque domaine retrouve son masque d'avant la modification et chaque mot de motifs ou de
+    // raisons son ancienne valeur
+    public void undoTo(int mark) {
+        while (trailSize > mark) {
+            int e = trail[--trailSize];
+            int kind = (e >>> 2) & 0b11;
+            if (kind == TRAIL_PATTERN) {
+                wordTrailSize--;
+                lineCandidates[wordTrailIndex[wordTrailSize]] = wordTrailValue[wordTrailSize];
+                continue;
+            }
+            if (kind == TRAIL_REASON) {
+                wordTrailSize--;
+                int i = wordTrailIndex[wordTrailSize];
+                if (i < lineReason.length) lineReason[i] = wordTrailValue[wordTrailSize];
+                else uniqueReason[i - lineReason.length] = wordTrailValue[wordTrailSize];
+                continue;
+            }
+            int cell = e >>> 4;
+            int r = cell / n, c = cell % n;
+            if (kind == TRAIL_ASSIGN) clearCell(r, c);
+            setDomainMask(r, c, e & 0b11);
+        }
+    }
+
+    // --- Format texte compact (une grille par ligne) ---
+
+    // Lit n*n caractères '0', '1' ou '.' (case vide), ligne par ligne ; les indices doivent respecter les règles
+    public static BinairoPosition parse(String line) {
+        int len = line.length();
+        int n = (int) Math.round(Math.sqrt(len));
+        if (n * n != len || n % 2 != 0) {
+            throw new IllegalArgumentException("Grille invalide : " + len + " caractères (attendu n*n, n pair)");
+        }
+        BinairoPosition pos = new BinairoPosition(n);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                char ch = line.charAt(r * n + c);
+                if (ch == '0' || ch == '1') pos.assign(r, c, ch - '0');
+                else if (ch != '.') throw new IllegalArgumentException("Caractère invalide : '" + ch + "'");
+            }
+        }
+        pos.checkClues();
+        return pos;
+    }
+
+    // Les indices respectent-ils les règles (n/2 de chaque valeur au plus, pas de triple, pas
+    // de lignes ou colonnes complètes identiques) ? Sinon IllegalArgumentException
+    void checkClues() {
+        int half = n / 2;
+        for (int i = 0; i < n; i++) {
+            for (int val = ZERO; val <= ONE; val++) {
+                if (rowCount(i, val) > half) throw new IllegalArgumentException("Grille invalide : plus de " + half + " '" + val + "' en ligne " + i);
+                if (colCount(i, val) > half) throw new IllegalArgumentException("Grille invalide : plus de " + half + " '" + val + "' en colonne " + i);
+            }
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int v = get(r, c);
+                if (v == EMPTY) continue;
+                // Fenêtre centrée sur la case : ses deux voisins égaux à elle = triple
+                if ((rowWindow(r, c, v) & 0b01110) == 0b01110 || (colWindow(c, r, v) & 0b01110) == 0b01110) {
+                    throw new IllegalArgumentException("Grille invalide : trois '" + v + "' consécutifs autour de (" + r + ", " + c + ")");
+                }
+            }
+        }
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                if (isRowFull(a) && isRowFull(b) && rowsEqual(a, b)) throw new IllegalArgumentException("Grille invalide : lignes " + a + " et " + b + " identiques");
+                if (isColFull(a) && isColFull(b) && colsEqual(a, b)) throw new IllegalArgumentException("Grille invalide : colonnes " + a + " et " + b + " identiques");
+            }
+        }
+    }
+
+    public String toLine() {
+        StringBuilder sb = new StringBuilder(n * n);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int v = get(r, c);
+                sb.append(v == EMPTY ? '.' : (char) ('0' + v));
+            }
+        }
+        return sb.toString();
     }
 
     @Override
@@ -88,11 +699,12 @@ public class BinairoPosition extends Position {
         for (int i = 0; i < n; i++) {
             sb.append(i).append(" "); // Numéro ligne
             for (int j = 0; j < n; j++) {
-                if (board[i][j] == EMPTY) sb.append(". ");
-                else sb.append(board[i][j]).append(" ");
+                int v = get(i, j);
+                if (v == EMPTY) sb.append(". ");
+                else sb.append(v).append(" ");
             }
             sb.append("\n");
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,11 @@
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public abstract class CSPSolver {
 
@@ -8,49 +14,411 @@ public abstract class CSPSolver {
     public boolean useLCV = false;      // Least Constraining Value
     public boolean useFC = false;       // Forward Checking
     public boolean useAC3 = false;      // Arc Consistency
+    public boolean useGAC = false;      // Cohérence d'arc généralisée sur lignes entières (prioritaire sur FC/AC-3)
+    public boolean usePresolve = false; // Déduction par règles jusqu'au point fixe avant la recherche
+    public boolean useDeduction = false; // Même déduction à chaque nœud, après la propagation
+    public boolean useTrail = true;     // Coups appliqués en place + annulation via trail (sinon copie par nœud)
+    public boolean useBackjumping = false; // Retour arrière dirigé par les conflits + nogoods appris
+    public boolean useIterative = true; // Mode trail : moteur itératif à pile explicite (sinon récursion)
+    public boolean useWdeg = false;     // dom/wdeg : plus petit rapport domaine / poids des contraintes (remplace MRV/Degree)
+    public boolean useAdaptive = false; // Aucune / FC / FC+AC-3 choisi par nœud selon le gain mesuré par profondeur (remplace FC/AC-3)
+
+    // Redémarrages : chaque essai de la recherche a un budget de nœuds (unité restartBase) suivant
+    // la suite de Luby (1, 1, 2, 1, 1, 2, 4, ...) ou une suite géométrique (facteur restartFactor) ;
+    // budget épuisé = retour à la racine et nouvel essai, avec départage aléatoire des cases et
+    // valeurs. Les nogoods appris sont gardés d'un essai à l'autre.
+    public static final int RESTART_NONE = 0;
+    public static final int RESTART_LUBY = 1;
+    public static final int RESTART_GEOMETRIC = 2;
+    public int restartStrategy = RESTART_NONE;
+    public long restartBase = 256;
+    public double restartFactor = 1.5;
+    public boolean randomizeTies = false; // Départage aléatoire des cases ex aequo (implicite avec les redémarrages)
+
+    // Magasin de nogoods du retour arrière dirigé par les conflits (vidé à chaque solve)
+    public int nogoodCapacity = 256;
+    public int nogoodMaxLength = 12;
+    public NogoodStore nogoods = null;
 
     // --- STATISTIQUES (POUR COMPARAISON) ---
     public long nodeCount = 0;          // Nombre de nœuds explorés
+    public long restarts = 0;           // Redémarrages de la dernière recherche
     public long startTime = 0;
     public double executionTime = 0;    // En secondes
+    public boolean interrupted = false; // Recherche coupée (limite de temps / arrêt) : résultat non concluant
     
+    // Recherche parallèle : nœuds explorés par chaque worker du pool (null en séquentiel)
+    public long[] workerNodeCounts = null;
+
     // Limite facultative de temps pour interrompre la recherche
     public Long timeLimitMs = null;
 
+    // Nœuds entre deux vérifications de la limite de temps et de l'annulation (nanoTime et
+    // lecture volatile hors du chemin chaud) : une annulation est vue au plus tard après
+    // checkInterval nœuds
+    public int checkInterval = 256;
+
+    // Limite facultative de nœuds : budget déterministe (recherche séquentielle)
+    public Long nodeLimit = null;
+
+    // Mesures détaillées (temps par phase, retours arrière...) : null = désactivé, coût nul
+    public SolverMetrics metrics = null;
+
+    // Propagation adaptative : statistiques par profondeur (créées au premier besoin), niveau
+    // choisi pour le dernier coup
+    public AdaptivePropagation adaptive = null;
+    private int lastPropagation;
+
+    // Valeurs retirées des domaines depuis le début de la recherche (tenu par l'implémentation)
+    protected long prunedValues;
+
+    // Drapeau d'arrêt partagé entre workers (recherche parallèle) : levé à la première solution
+    protected AtomicBoolean cancelled = null;
+
+    // Annulation demandée par un autre thread (cancel, ou annulation du futur de solveAsync)
+    private volatile boolean cancelRequested = false;
+
+    // Fin du budget de l'essai en cours (redémarrages) ; restartCut : c'est lui qui a coupé
+    private long runNodeLimit = Long.MAX_VALUE;
+    private boolean restartCut;
+
+    // Horloge de la recherche en cours : départ (nanoTime), limite (Long.MAX_VALUE si aucune),
+    // nœuds restants avant la prochaine vérification
+    protected long startNanos;
+    protected long limitNanos = Long.MAX_VALUE;
+    private int untilCheck;
+
+    // Espaces de travail du retour arrière dirigé par les conflits : ensemble de conflit (bitset
+    // de niveaux) et littéral de la décision de chaque niveau, niveau de la décision en cours
+    private long[][] conflictSets;
+    private int[] decisionLiterals;
+    private int[] nogoodBuffer;
+    protected int decisionLevel;
+
+    // Pile explicite du moteur itératif, un cadre par profondeur : case choisie, valeurs à
+    // essayer (nombre sur 2 bits, puis un bit par valeur), prochaine valeur, marque du trail
+    // du coup en cours ; pour le comptage, solutions trouvées et limite du cadre
+    private int[] stackRow = new int[0];
+    private int[] stackCol;
+    private int[] stackValues;
+    private int[] stackNext;
+    private int[] stackMark;
+    private int[] stackFound;
+    private int[] stackLimit;
+    // Coup réutilisé par les moteurs itératifs, rempli depuis la pile à chaque valeur essayée
+    // (isValid, applyMoveInPlace et l'inférence ne le conservent pas)
+    private final BinairoMove frameMove = new BinairoMove(-1, -1, -1);
+
     /**
-     * Point d'entrée principal pour lancer la résolution
+     * Applique une configuration figée (heuristiques, propagation, limites). Les statistiques
+     * et espaces de travail restent ceux de ce solveur : un solveur par thread, une même
+     * configuration partagée (voir SharedSolver).
+     */
+    public void configure(SolverConfig config) {
+        applyConfig(config);
+        if (!config.metrics) this.metrics = null;
+        else if (metrics == null) this.metrics = new SolverMetrics();
+    }
+
+    private void applyConfig(SolverConfig config) {
+        this.useMRV = config.useMRV; this.useDegree = config.useDegree; this.useLCV = config.useLCV;
+        this.useFC = config.useFC; this.useAC3 = config.useAC3; this.useGAC = config.useGAC;
+        this.usePresolve = config.usePresolve; this.useDeduction = config.useDeduction;
+        this.useTrail = config.useTrail; this.useBackjumping = config.useBackjumping;
+        this.useIterative = config.useIterative; this.useWdeg = config.useWdeg;
+        this.useAdaptive = config.useAdaptive;
+        this.randomizeTies = config.randomizeTies;
+        this.restartStrategy = config.restartStrategy; this.restartBase = config.restartBase;
+        this.restartFactor = config.restartFactor;
+        this.nogoodCapacity = config.nogoodCapacity; this.nogoodMaxLength = config.nogoodMaxLength;
+        this.timeLimitMs = config.timeLimitMs; this.nodeLimit = config.nodeLimit;
+        this.checkInterval = config.checkInterval;
+    }
+
+    // Configuration courante, figée (pour créer d'autres solveurs identiques)
+    public SolverConfig config() {
+        return SolverConfig.builder()
+                .mrv(useMRV).degree(useDegree).lcv(useLCV).fc(useFC).ac3(useAC3).gac(useGAC)
+                .presolve(usePresolve).deduction(useDeduction).trail(useTrail)
+                .backjumping(useBackjumping).iterative(useIterative).wdeg(useWdeg).adaptive(useAdaptive)
+                .randomizeTies(randomizeTies).restarts(restartStrategy, restartBase).restartFactor(restartFactor)
+                .nogoods(nogoodCapacity, nogoodMaxLength).timeLimitMs(timeLimitMs).nodeLimit(nodeLimit)
+                .checkInterval(checkInterval).metrics(metrics != null)
+                .build();
+    }
+
+    /**
+     * Point d'entrée principal pour lancer la résolution. La recherche travaille sur une copie :
+     * la position de l'appelant n'est jamais modifiée.
      */
     public Position solve(Position startPos) {
+        cancelRequested = false;
+        return runSolve(copyPosition(startPos));
+    }
+
+    // solve, avec la solution et les statistiques de cette résolution figées dans un résultat
+    public SolveResult solveResult(Position startPos) {
+        Position solution = solve(startPos);
+        return result(solution);
+    }
+
+    private SolveResult result(Position solution) {
+        return new SolveResult(solution, nodeCount, executionTime, interrupted, cancelRequested,
+                               metrics != null ? metrics.snapshot() : null);
+    }
+
+    private Position runSolve(Position startPos) {
+        begin();
+        if (metrics != null) metrics.reset();
+
+        // Lancer la récursion (après la préparation, qui peut déjà prouver l'absence de solution)
+        if (nogoods != null) nogoods.clear();
+        Position result = prepare(startPos) ? search(startPos) : null;
+
+        this.executionTime = elapsedSeconds();
+        return result;
+    }
+
+    /**
+     * Résolution asynchrone sur le pool commun : voir solveAsync(Position, Executor).
+     */
+    public CompletableFuture<SolveResult> solveAsync(Position startPos) {
+        return solveAsync(startPos, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Lance solve sur 'executor' et rend un futur du résultat. Le futur se termine normalement
+     * aussi sur limite de temps ou de nœuds (SolveResult.interrupted, statistiques partielles).
+     * L'annuler (future.cancel) arrête la recherche au prochain point de vérification au lieu
+     * de la laisser tourner jusqu'à sa limite. Une seule résolution à la fois par solveur ;
+     * la position est copiée dès l'appel, l'appelant peut la réutiliser aussitôt.
+     */
+    public CompletableFuture<SolveResult> solveAsync(Position startPos, Executor executor) {
+        cancelRequested = false;
+        Position start = copyPosition(startPos);
+        CompletableFuture<SolveResult> future = new CompletableFuture<SolveResult>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                CSPSolver.this.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        executor.execute(() -> {
+            if (future.isCancelled()) return;
+            try {
+                future.complete(result(runSolve(start)));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Demande l'arrêt de la résolution en cours (appelable depuis n'importe quel thread).
+     * La recherche s'arrête au prochain point de vérification avec interrupted = true.
+     */
+    public void cancel() {
+        cancelRequested = true;
+        AtomicBoolean shared = cancelled;
+        if (shared != null) shared.set(true);
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    // Remise à zéro des statistiques et départ de l'horloge d'une résolution
+    private void begin() {
         this.nodeCount = 0;
+        this.restarts = 0;
+        this.interrupted = false;
         this.startTime = System.currentTimeMillis();
-        
-        // Lancer la récursion
-        Position result = backtracking(startPos);
-        
-        this.executionTime = (System.currentTimeMillis() - this.startTime) / 1000.0;
+        this.startNanos = System.nanoTime();
+        this.limitNanos = timeLimitMs != null ? timeLimitMs * 1_000_000L : Long.MAX_VALUE;
+        this.untilCheck = 0;
+        this.prunedValues = 0;
+        if (useAdaptive) {
+            if (adaptive == null) adaptive = new AdaptivePropagation();
+            adaptive.reset();
+        }
+    }
+
+    private double elapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /**
+     * Résolution parallèle sur tous les cœurs disponibles
+     */
+    public Position solveParallel(Position startPos) {
+        int workers = Runtime.getRuntime().availableProcessors();
+        // ~8 tâches par worker pour que le vol de travail équilibre la charge
+        int splitDepth = 32 - Integer.numberOfLeadingZeros(workers * 8 - 1);
+        return solveParallel(startPos, workers, splitDepth);
+    }
+
+    /**
+     * Résolution parallèle fork/join : les 'splitDepth' premiers niveaux de branchement
+     * deviennent des sous-tâches, explorées séquentiellement en dessous (voir ParallelSearch).
+     * La première solution trouvée arrête tous les workers.
+     */
+    public Position solveParallel(Position startPos, int workers, int splitDepth) {
+        cancelRequested = false;
+        begin();
+
+        AtomicLongArray perWorker = new AtomicLongArray(workers);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        Position start = copyPosition(startPos);
+        Position result = null;
+        // Le drapeau partagé des workers sert aussi à relayer cancel()
+        AtomicBoolean stop = new AtomicBoolean();
+        this.cancelled = stop;
+        if (cancelRequested) stop.set(true);
+        try {
+            if (prepare(start)) {
+                result = pool.invoke(new ParallelSearch(this, start, 0, splitDepth, stop, perWorker));
+            }
+        } finally {
+            this.cancelled = null;
+            pool.shutdown();
+        }
+
+        this.interrupted = result == null
+                && (cancelRequested || System.nanoTime() - startNanos > limitNanos);
+        this.workerNodeCounts = new long[workers];
+        for (int i = 0; i < workers; i++) {
+            workerNodeCounts[i] = perWorker.get(i);
+            nodeCount += workerNodeCounts[i];
+        }
+        this.executionTime = elapsedSeconds();
         return result;
     }
 
+    /**
+     * Compte les solutions, en s'arrêtant dès que 'limit' est atteint (limit = 2 suffit pour
+     * vérifier l'unicité). Mêmes heuristiques et même propagation que solve ; la position
+     * de l'appelant n'est pas modifiée. Si 'interrupted' est levé, le compte est incomplet.
+     */
+    public int countSolutions(Position startPos, int limit) {
+        cancelRequested = false;
+        begin();
+        if (metrics != null) metrics.reset();
+
+        Position start = copyPosition(startPos);
+        int count = 0;
+        if (prepare(start)) {
+            count = useTrail && useIterative ? iterativeCount(start, limit) : countBacktracking(start, limit);
+        }
+
+        this.executionTime = elapsedSeconds();
+        return count;
+    }
+
+    /**
+     * Nouveau solveur avec la même configuration (heuristiques, limite de temps),
+     * pour qu'un worker ait ses propres statistiques et espaces de travail.
+     */
+    protected CSPSolver forkSolver() {
+        CSPSolver s = newInstance();
+        // Mesures tenues par le solveur parent seulement ; pas de limite de nœuds par worker
+        s.applyConfig(config());
+        s.nodeLimit = null;
+        s.startTime = startTime;
+        s.startNanos = startNanos;
+        s.limitNanos = limitNanos;
+        return s;
+    }
+
+    /**
+     * Recherche séquentielle depuis une position préparée : backtracking chronologique, ou
+     * retour arrière dirigé par les conflits si useBackjumping (les coups déjà posés sur 'p'
+     * comptent alors comme des indices). Les nogoods déjà appris sont gardés.
+     */
+    protected Position search(Position p) {
+        if (restartStrategy == RESTART_NONE) return searchOnce(p);
+        try {
+            for (int run = 0; ; run++) {
+                runNodeLimit = nodeCount + Math.max(1, restartBudget(run));
+                restartCut = false;
+                Position result = searchOnce(p);
+                // Solution, arbre épuisé (preuve d'absence) ou limite globale : terminé.
+                // Sinon la position est revenue à la racine (tous les coups annulés)
+                if (result != null || !restartCut) return result;
+                interrupted = false;
+                restarts++;
+                if (metrics != null) metrics.restart();
+            }
+        } finally {
+            runNodeLimit = Long.MAX_VALUE;
+        }
+    }
+
+    // Budget de nœuds de l'essai 'run' (0, 1, ...)
+    private long restartBudget(int run) {
+        if (restartStrategy == RESTART_LUBY) return restartBase * luby(run);
+        return (long) Math.min(Long.MAX_VALUE / 2, restartBase * Math.pow(restartFactor, run));
+    }
+
+    /**
+     * Terme i (à partir de 0) de la suite de Luby : 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8...
+     * Plus petite séquence 2^k - 1 couvrant i, puis descente dans la sous-séquence qui le contient.
+     */
+    public static long luby(long i) {
+        long size = 1;
+        int seq = 0;
+        while (size < i + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != i) {
+            size = (size - 1) >> 1;
+            seq--;
+            i = i % size;
+        }
+        return 1L << seq;
+    }
+
+    // Une recherche complète depuis p (sans redémarrage)
+    private Position searchOnce(Position p) {
+        boolean iterative = useTrail && useIterative;
+        if (!useBackjumping) return iterative ? iterativeBacktracking(p) : backtracking(p);
+        int levels = enableReasons(p);
+        int words = (levels + 64) >>> 6;
+        if (conflictSets == null || conflictSets.length < levels + 2 || conflictSets[0].length != words) {
+            conflictSets = new long[levels + 2][words];
+            decisionLiterals = new int[levels + 2];
+        }
+        if (nogoods == null || nogoods.capacity != nogoodCapacity || nogoods.maxLength != nogoodMaxLength) {
+            nogoods = new NogoodStore(nogoodCapacity, nogoodMaxLength);
+            nogoodBuffer = new int[nogoodMaxLength];
+        }
+        return iterative ? iterativeBackjumping(p) : backjumping(p, 1);
+    }
+
     /**
      * L'ALGORITHME DE BACKTRACKING (Cœur du moteur)
      */
     protected Position backtracking(Position p) {
         nodeCount++;
+        SolverMetrics m = metrics;
+        if (m != null) m.node();
 
-        // Interruption douce si limite de temps dépassée
-        if (timeLimitMs != null) {
-            long elapsed = System.currentTimeMillis() - this.startTime;
-            if (elapsed > timeLimitMs) return null;
-        }
+        // Interruption douce si limite de temps dépassée ou si un autre worker a trouvé
+        if (shouldStop()) return null;
 
         // 1. TEST D'ARRÊT : Si la grille est complète et valide
-        if (isComplete(p)) {
+        long t = m != null ? System.nanoTime() : 0;
+        boolean complete = isComplete(p);
+        if (m != null) t = m.phase(SolverMetrics.COMPLETE, t);
+        if (complete) {
             return p;
         }
 
         // 2. CHOIX DE LA VARIABLE (Case vide)
         // C'est ici que MRV et Degree interviennent
         Move var = selectVariable(p);
+        if (m != null) t = m.phase(SolverMetrics.SELECT, t);
         
         // Si aucune variable n'est retournée alors qu'on n'est pas complet, c'est une impasse
         if (var == null) return null;
@@ -58,6 +426,7 @@ public abstract class CSPSolver {
         // 3. CHOIX DES VALEURS (0 ou 1)
         // C'est ici que LCV intervient
         List<Integer> values = orderDomainValues(p, var);
+        if (m != null) m.phase(SolverMetrics.ORDER, t);
 
         // 4. BOUCLE D'ESSAI
         for (int val : values) {
@@ -68,26 +437,42 @@ public abstract class CSPSolver {
             BinairoMove move = new BinairoMove(((BinairoMove)var).row, ((BinairoMove)var).col, val);
 
             // A. VÉRIFICATION DE LA CONSISTANCE (Règles du jeu)
-            if (isValid(p, move)) {
+            if (m != null) t = System.nanoTime();
+            boolean valid = isValid(p, move);
+            if (m != null) t = m.phase(SolverMetrics.VALIDATE, t);
+            if (valid) {
                 
-                // Appliquer le coup sur une COPIE de la position (pour pouvoir backtracker)
+                // Appliquer le coup : en place avec trail (aucune allocation), ou sur une COPIE
                 // Note: applyMove doit utiliser le constructeur de copie de BinairoPosition
-                Position nextP = applyMove(p, move);
+                int mark = 0;
+                Position nextP;
+                if (useTrail) {
+                    mark = saveState(p);
+                    nextP = applyMoveInPlace(p, move);
+                } else {
+                    nextP = applyMove(p, move);
+                }
+                if (m != null) m.phase(SolverMetrics.APPLY, t);
 
-                // B. PROPAGATION DE CONTRAINTES (FC ou AC-3)
+                // B. PROPAGATION DE CONTRAINTES (FC, AC-3 ou GAC)
                 // Si activé, on réduit les domaines des futures variables.
                 // Si un domaine devient vide, runInference renvoie false -> on coupe la branche.
-                if (useFC || useAC3) {
+                if (usesInference()) {
                     if (!runInference(nextP, move)) {
+                        undo(p, mark);
                         continue; // "Elagage" : on abandonne cette branche
                     }
                 }
 
                 // C. APPEL RÉCURSIF
+                if (m != null) m.depth++;
                 Position result = backtracking(nextP);
+                if (m != null) m.depth--;
                 if (result != null) {
                     return result; // Solution trouvée !
                 }
+                // Annuler le coup et toutes les réductions de domaine qu'il a entraînées
+                undo(p, mark);
             }
             // Si on arrive ici, c'est que 'val' ne mène pas à une solution.
             // On boucle pour tester la valeur suivante (Backtrack implicite).
@@ -96,6 +481,516 @@ public abstract class CSPSolver {
         return null; // Échec : aucune valeur ne fonctionne pour cette variable
     }
 
+    /**
+     * RETOUR ARRIÈRE DIRIGÉ PAR LES CONFLITS (useBackjumping)
+     * Même parcours que backtracking (heuristiques, inférence), mais chaque décision porte son
+     * niveau (la profondeur, à partir de 1) et la position tient les niveaux dont dépend chaque
+     * contrainte (enableReasons). L'ensemble de conflit d'un nœud réunit les niveaux responsables
+     * des valeurs déjà retirées de la variable, des échecs de l'inférence et des échecs des
+     * sous-arbres ; il est laissé dans conflictSets[level] quand le nœud échoue.
+     * Si l'ensemble rendu par un enfant ne contient pas le niveau courant, le coup courant n'a
+     * aucune part à l'échec : on remonte directement (saut) sans essayer les autres valeurs.
+     * Quand toutes les valeurs échouent, les décisions de l'ensemble forment un nogood, appris
+     * dans le magasin borné et vérifié à chaque inférence (checkNogoods).
+     */
+    private Position backjumping(Position p, int level) {
+        nodeCount++;
+        SolverMetrics m = metrics;
+        if (m != null) m.node();
+        long[] conflict = conflictSets[level];
+        Arrays.fill(conflict, 0);
+
+        // Interruption : ensemble vide, chaque ancêtre remonte sans rien essayer
+        if (shouldStop()) return null;
+
+        long t = m != null ? System.nanoTime() : 0;
+        boolean complete = isComplete(p);
+        if (m != null) t = m.phase(SolverMetrics.COMPLETE, t);
+        if (complete) return p;
+
+        Move var = selectVariable(p);
+        if (m != null) t = m.phase(SolverMetrics.SELECT, t);
+        if (var == null) {
+            // Grille pleine mais invalide : impasse non expliquée, tous les niveaux sont suspects
+            addLevels(conflict, level - 1);
+            return null;
+        }
+
+        List<Integer> values = orderDomainValues(p, var);
+        if (m != null) m.phase(SolverMetrics.ORDER, t);
+
+        // Valeurs déjà retirées du domaine et valeurs refusées par les règles : même raison
+        explainVariable(p, var, conflict);
+
+        for (int val : values) {
+            BinairoMove move = new BinairoMove(((BinairoMove)var).row, ((BinairoMove)var).col, val);
+            if (m != null) t = System.nanoTime();
+            boolean valid = isValid(p, move);
+            if (m != null) t = m.phase(SolverMetrics.VALIDATE, t);
+            if (!valid) continue;
+
+            decisionLiterals[level] = literal(p, move);
+            decisionLevel = level;
+            int mark = 0;
+            Position nextP;
+            if (useTrail) {
+                mark = saveState(p);
+                nextP = applyMoveInPlace(p, move);
+            } else {
+                nextP = applyMove(p, move);
+            }
+            if (m != null) m.phase(SolverMetrics.APPLY, t);
+
+            // Inférence puis nogoods appris
+            clearConflict(nextP);
+            boolean consistent = (!usesInference() || runInference(nextP, move))
+                    && (nogoods.size() == 0 || checkNogoods(nextP, move));
+            if (!consistent) {
+                // Échec non expliqué par la propagation : retour chronologique (sûr)
+                if (!explainConflict(nextP, conflict)) addLevels(conflict, level);
+                undo(p, mark);
+                continue;
+            }
+
+            if (m != null) m.depth++;
+            Position result = backjumping(nextP, level + 1);
+            if (m != null) m.depth--;
+            if (result != null) return result;
+
+            long[] child = conflictSets[level + 1];
+            if ((child[level >>> 6] & (1L << level)) == 0) {
+                // Le coup de ce niveau n'est pas en cause : saut vers le niveau coupable
+                System.arraycopy(child, 0, conflict, 0, conflict.length);
+                undo(p, mark);
+                if (m != null && !isEmpty(child)) m.backjump();
+                return null;
+            }
+            for (int i = 0; i < conflict.length; i++) conflict[i] |= child[i];
+            undo(p, mark);
+        }
+
+        conflict[level >>> 6] &= ~(1L << level);
+        learnNogood(conflict);
+        return null;
+    }
+
+    // Ajoute les niveaux 1..upTo à l'ensemble
+    private static void addLevels(long[] set, int upTo) {
+        for (int l = 1; l <= upTo; l++) set[l >>> 6] |= 1L << l;
+    }
+
+    private static boolean isEmpty(long[] set) {
+        for (long w : set) if (w != 0) return false;
+        return true;
+    }
+
+    // Les décisions des niveaux de l'ensemble ne peuvent pas être prises ensemble
+    private void learnNogood(long[] conflict) {
+        int len = 0;
+        for (int w = 0; w < conflict.length; w++) {
+            for (long bits = conflict[w]; bits != 0; bits &= bits - 1) {
+                if (len == nogoodBuffer.length) return; // trop long pour être utile
+                nogoodBuffer[len++] = decisionLiterals[(w << 6) + Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        if (nogoods.add(nogoodBuffer, len) && metrics != null) metrics.learned();
+    }
+
+    // Retour arrière sur un coup : annulation en mode trail (la copie est simplement abandonnée)
+    private void undo(Position p, int mark) {
+        SolverMetrics m = metrics;
+        if (m == null) {
+            if (useTrail) restoreState(p, mark);
+            return;
+        }
+        long t = System.nanoTime();
+        if (useTrail) restoreState(p, mark);
+        m.phase(SolverMetrics.APPLY, t);
+        m.backtrack();
+    }
+
+    /**
+     * Variante de comptage du backtracking : on ne s'arrête pas à la première solution,
+     * seulement quand 'limit' solutions ont été trouvées. En mode trail, chaque branche est
+     * toujours annulée, solutions comprises.
+     */
+    protected int countBacktracking(Position p, int limit) {
+        nodeCount++;
+        SolverMetrics m = metrics;
+        if (m != null) m.node();
+        if (shouldStop()) return 0;
+
+        long t = m != null ? System.nanoTime() : 0;
+        boolean complete = isComplete(p);
+        if (m != null) t = m.phase(SolverMetrics.COMPLETE, t);
+        if (complete) return 1;
+
+        Move var = selectVariable(p);
+        if (m != null) t = m.phase(SolverMetrics.SELECT, t);
+        if (var == null) return 0;
+
+        List<Integer> values = orderDomainValues(p, var);
+        if (m != null) m.phase(SolverMetrics.ORDER, t);
+
+        int found = 0;
+        for (int val : values) {
+            BinairoMove move = new BinairoMove(((BinairoMove)var).row, ((BinairoMove)var).col, val);
+            if (m != null) t = System.nanoTime();
+            boolean valid = isValid(p, move);
+            if (m != null) t = m.phase(SolverMetrics.VALIDATE, t);
+            if (!valid) continue;
+
+            int mark = 0;
+            Position nextP;
+            if (useTrail) {
+                mark = saveState(p);
+                nextP = applyMoveInPlace(p, move);
+            } else {
+                nextP = applyMove(p, move);
+            }
+            if (m != null) m.phase(SolverMetrics.APPLY, t);
+
+            if (!usesInference() || runInference(nextP, move)) {
+                if (m != null) m.depth++;
+                found += countBacktracking(nextP, limit - found);
+                if (m != null) m.depth--;
+            }
+            undo(p, mark);
+
+            if (found >= limit || interrupted) break;
+        }
+        return found;
+    }
+
+    // =========================================================================
+    // MOTEUR ITÉRATIF (mode trail)
+    // =========================================================================
+    // Les trois recherches récursives (backtracking, countBacktracking, backjumping) déroulées
+    // sur une pile de cadres primitifs : la profondeur n'est plus limitée par la pile d'appels
+    // (64x64 = ~4000 niveaux), et une seule position est modifiée puis annulée via le trail.
+    // Même ordre d'appels que la récursion (heuristiques, tirages aléatoires, mesures) : mêmes
+    // résultats, mêmes nœuds, mêmes statistiques.
+
+    /**
+     * backtracking sans récursion. "Entrer" dans un nœud empile un cadre ; un échec dépile le
+     * cadre, annule le coup du parent et reprend sa boucle de valeurs.
+     */
+    protected Position iterativeBacktracking(Position p) {
+        SolverMetrics m = metrics;
+        int depth = 0;
+        boolean enter = true;
+        long t = 0;
+        while (true) {
+            if (enter) {
+                enter = false;
+                nodeCount++;
+                if (m != null) m.node();
+                if (shouldStop()) {
+                    depth = backtrackFrom(p, depth);
+                    if (depth < 0) return null;
+                    continue;
+                }
+
+                if (m != null) t = System.nanoTime();
+                boolean complete = isComplete(p);
+                if (m != null) t = m.phase(SolverMetrics.COMPLETE, t);
+                if (complete) {
+                    if (m != null) m.depth -= depth;
+                    return p;
+                }
+
+                int cell = selectCell(p);
+                if (m != null) t = m.phase(SolverMetrics.SELECT, t);
+                if (cell < 0) {
+                    depth = backtrackFrom(p, depth);
+                    if (depth < 0) return null;
+                    continue;
+                }
+                pushFrame(p, cell, depth);
+                if (m != null) m.phase(SolverMetrics.ORDER, t);
+            }
+
+            // Valeur suivante du cadre courant
+            if (stackNext[depth] == (stackValues[depth] & 0b11)) {
+                depth = backtrackFrom(p, depth);
+                if (depth < 0) return null;
+                continue;
+            }
+            int val = (stackValues[depth] >>> (2 + stackNext[depth]++)) & 1;
+            BinairoMove move = frameMove(depth, val);
+            if (m != null) t = System.nanoTime();
+            boolean valid = isValid(p, move);
+            if (m != null) t = m.phase(SolverMetrics.VALIDATE, t);
+            if (!valid) continue;
+
+            int mark = saveState(p);
+            applyMoveInPlace(p, move);
+            if (m != null) m.phase(SolverMetrics.APPLY, t);
+            if (usesInference() && !runInference(p, move)) {
+                undo(p, mark);
+                continue;
+            }
+            stackMark[depth] = mark;
+            if (m != null) m.depth++;
+            depth++;
+            enter = true;
+        }
+    }
+
+    // Le nœud de profondeur 'depth' échoue : le parent annule son coup. Retourne la profondeur
+    // du parent, ou -1 si la racine a échoué.
+    private int backtrackFrom(Position p, int depth) {
+        if (depth == 0) return -1;
+        depth--;
+        if (metrics != null) metrics.depth--;
+        undo(p, stackMark[depth]);
+        return depth;
+    }
+
+    // Empile le cadre de la case 'cell' (voir selectCell) à la profondeur 'depth', valeurs dans
+    // l'ordre de orderedValues
+    private void pushFrame(Position p, int cell, int depth) {
+        if (depth >= stackRow.length) growStack(depth + 1);
+        int row = cell >>> 16, col = cell & 0xFFFF;
+        stackRow[depth] = row;
+        stackCol[depth] = col;
+        stackValues[depth] = orderedValues(p, row, col);
+        stackNext[depth] = 0;
+    }
+
+    // Coup de la case du cadre 'depth' avec la valeur 'val', sans allocation
+    private BinairoMove frameMove(int depth, int val) {
+        frameMove.row = stackRow[depth];
+        frameMove.col = stackCol[depth];
+        frameMove.value = val;
+        return frameMove;
+    }
+
+    private void growStack(int min) {
+        int size = Math.max(min, Math.max(64, stackRow.length * 2));
+        stackRow = Arrays.copyOf(stackRow, size);
+        stackCol = stackCol == null ? new int[size] : Arrays.copyOf(stackCol, size);
+        stackValues = stackValues == null ? new int[size] : Arrays.copyOf(stackValues, size);
+        stackNext = stackNext == null ? new int[size] : Arrays.copyOf(stackNext, size);
+        stackMark = stackMark == null ? new int[size] : Arrays.copyOf(stackMark, size);
+        stackFound = stackFound == null ? new int[size] : Arrays.copyOf(stackFound, size);
+        stackLimit = stackLimit == null ? new int[size] : Arrays.copyOf(stackLimit, size);
+    }
+
+    /**
+     * countBacktracking sans récursion : chaque cadre tient ses solutions trouvées et sa limite
+     * (celle du parent moins ce que le parent a déjà trouvé).
+     */
+    protected int iterativeCount(Position p, int limit) {
+        SolverMetrics m = metrics;
+        int depth = 0;
+        boolean enter = true;
+        int returned = 0;   // Résultat du cadre qui vient de se terminer
+        boolean returning = false;
+        long t = 0;
+        if (stackRow.length == 0) growStack(1);
+        stackLimit[0] = limit;
+        while (true) {
+            if (enter) {
+                enter = false;
+                nodeCount++;
+                if (m != null) m.node();
+                if (shouldStop()) {
+                    returned = 0;
+                    returning = true;
+                } else {
+                    if (m != null) t = System.nanoTime();
+                    boolean complete = isComplete(p);
+                    if (m != null) t = m.phase(SolverMetrics.COMPLETE, t);
+                    if (complete) {
+                        returned = 1;
+                        returning = true;
+                    } else {
+                        int cell = selectCell(p);
+                        if (m != null) t = m.phase(SolverMetrics.SELECT, t);
+                        if (cell < 0) {
+                            returned = 0;
+                            returning = true;
+                        } else {
+                            pushFrame(p, cell, depth);
+                            if (m != null) m.phase(SolverMetrics.ORDER, t);
+                            stackFound[depth] = 0;
+                        }
+                    }
+                }
+            }
+
+            if (returning) {
+                returning = false;
+                if (depth == 0) return returned;
+                // Retour dans le parent : ses solutions, puis annulation du coup
+                depth--;
+                if (m != null) m.depth--;
+                stackFound[depth] += returned;
+                undo(p, stackMark[depth]);
+                if (stackFound[depth] >= stackLimit[depth] || interrupted) {
+                    returned = stackFound[depth];
+                    returning = true;
+                }
+                continue;
+            }
+
+            if (stackNext[depth] == (stackValues[depth] & 0b11)) {
+                returned = stackFound[depth];
+                returning = true;
+                continue;
+            }
+            int val = (stackValues[depth] >>> (2 + stackNext[depth]++)) & 1;
+            BinairoMove move = frameMove(depth, val);
+            if (m != null) t = System.nanoTime();
+            boolean valid = isValid(p, move);
+            if (m != null) t = m.phase(SolverMetrics.VALIDATE, t);
+            if (!valid) continue;
+
+            int mark = saveState(p);
+            applyMoveInPlace(p, move);
+            if (m != null) m.phase(SolverMetrics.APPLY, t);
+            if (!usesInference() || runInference(p, move)) {
+                stackMark[depth] = mark;
+                if (m != null) m.depth++;
+                depth++;
+                if (depth >= stackRow.length) growStack(depth + 1);
+                stackLimit[depth] = stackLimit[depth - 1] - stackFound[depth - 1];
+                enter = true;
+                continue;
+            }
+            undo(p, mark);
+            if (stackFound[depth] >= stackLimit[depth] || interrupted) {
+                returned = stackFound[depth];
+                returning = true;
+            }
+        }
+    }
+
+    /**
+     * backjumping sans récursion : le cadre de profondeur d est le niveau d + 1. Un nœud qui
+     * échoue laisse son ensemble de conflit dans conflictSets ; le parent saute à son tour
+     * (échec immédiat) si son niveau n'y figure pas.
+     */
+    private Position iterativeBackjumping(Position p) {
+        SolverMetrics m = metrics;
+        int depth = 0;
+        boolean enter = true;
+        boolean failing = false;   // Le cadre de profondeur 'depth' vient d'échouer
+        long t = 0;
+        while (true) {
+            int level = depth + 1;
+            if (enter) {
+                enter = false;
+                nodeCount++;
+                if (m != null) m.node();
+                long[] conflict = conflictSets[level];
+                Arrays.fill(conflict, 0);
+                if (shouldStop()) {
+                    failing = true;
+                } else {
+                    if (m != null) t = System.nanoTime();
+                    boolean complete = isComplete(p);
+                    if (m != null) t = m.phase(SolverMetrics.COMPLETE, t);
+                    if (complete) {
+                        if (m != null) m.depth -= depth;
+                        return p;
+                    }
+                    int cell = selectCell(p);
+                    if (m != null) t = m.phase(SolverMetrics.SELECT, t);
+                    if (cell < 0) {
+                        addLevels(conflict, level - 1);
+                        failing = true;
+                    } else {
+                        pushFrame(p, cell, depth);
+                        if (m != null) m.phase(SolverMetrics.ORDER, t);
+                        explainVariable(p, frameMove(depth, -1), conflict);
+                    }
+                }
+            }
+
+            if (failing) {
+                failing = false;
+                if (depth == 0) return null;
+                // Retour dans le parent (niveau level - 1) avec l'ensemble de l'enfant
+                depth--;
+                level--;
+                if (m != null) m.depth--;
+                long[] child = conflictSets[level + 1];
+                long[] conflict = conflictSets[level];
+                if ((child[level >>> 6] & (1L << level)) == 0) {
+                    System.arraycopy(child, 0, conflict, 0, conflict.length);
+                    undo(p, stackMark[depth]);
+                    if (m != null && !isEmpty(child)) m.backjump();
+                    failing = true;
+                    continue;
+                }
+                for (int i = 0; i < conflict.length; i++) conflict[i] |= child[i];
+                undo(p, stackMark[depth]);
+                continue;
+            }
+
+            long[] conflict = conflictSets[level];
+            if (stackNext[depth] == (stackValues[depth] & 0b11)) {
+                conflict[level >>> 6] &= ~(1L << level);
+                learnNogood(conflict);
+                failing = true;
+                continue;
+            }
+            int val = (stackValues[depth] >>> (2 + stackNext[depth]++)) & 1;
+            BinairoMove move = frameMove(depth, val);
+            if (m != null) t = System.nanoTime();
+            boolean valid = isValid(p, move);
+            if (m != null) t = m.phase(SolverMetrics.VALIDATE, t);
+            if (!valid) continue;
+
+            decisionLiterals[level] = literal(p, move);
+            decisionLevel = level;
+            int mark = saveState(p);
+            applyMoveInPlace(p, move);
+            if (m != null) m.phase(SolverMetrics.APPLY, t);
+
+            clearConflict(p);
+            boolean consistent = (!usesInference() || runInference(p, move))
+                    && (nogoods.size() == 0 || checkNogoods(p, move));
+            if (!consistent) {
+                if (!explainConflict(p, conflict)) addLevels(conflict, level);
+                undo(p, mark);
+                continue;
+            }
+            stackMark[depth] = mark;
+            if (m != null) m.depth++;
+            depth++;
+            enter = true;
+        }
+    }
+
+    // Limite de temps ou de nœuds dépassée, ou arrêt demandé (cancel, autre worker) : définitif une fois vu
+    protected boolean shouldStop() {
+        if (interrupted) return true;
+        if (nodeLimit != null && nodeCount > nodeLimit) {
+            interrupted = true;
+            return true;
+        }
+        if (nodeCount > runNodeLimit) {
+            restartCut = true;
+            interrupted = true;
+            return true;
+        }
+        // Horloge et drapeaux lus tous les checkInterval nœuds seulement
+        if (--untilCheck > 0) return false;
+        untilCheck = checkInterval;
+        if (System.nanoTime() - startNanos > limitNanos) {
+            interrupted = true;
+            return true;
+        }
+        if (cancelRequested || (cancelled != null && cancelled.get())) {
+            interrupted = true;
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Sélectionne la prochaine variable à assigner.
      * Implémente MRV et Degree Heuristic.
@@ -161,6 +1056,28 @@ public abstract class CSPSolver {
 
         return bestVar;
     }
+    /**
+     * Version sans objet de selectVariable pour les moteurs itératifs : case choisie codée
+     * (row << 16) | col, ou -1 s'il n'y en a pas. Par défaut, délègue à selectVariable.
+     */
+    protected int selectCell(Position p) {
+        Move var = selectVariable(p);
+        if (var == null) return -1;
+        BinairoMove m = (BinairoMove) var;
+        return (m.row << 16) | m.col;
+    }
+
+    /**
+     * Valeurs de (row, col) dans l'ordre de orderDomainValues, empaquetées comme un cadre de
+     * la pile : nombre sur 2 bits, puis un bit par valeur. Par défaut, passe par la liste.
+     */
+    protected int orderedValues(Position p, int row, int col) {
+        List<Integer> values = orderDomainValues(p, new BinairoMove(row, col, -1));
+        int packed = values.size();
+        for (int i = 0; i < values.size(); i++) packed |= values.get(i) << (2 + i);
+        return packed;
+    }
+
     /**
      * Ordonne les valeurs du domaine.
      * Implémente LCV (Least Constraining Value).
@@ -186,18 +1103,88 @@ public abstract class CSPSolver {
     }
 
     /**
-     * Exécute Forward Checking ou AC-3.
-     * Retourne false si un domaine devient vide (échec).
+     * Exécute Forward Checking, AC-3 ou la cohérence de lignes (GAC), puis la déduction par
+     * règles si elle est activée. Retourne false si un domaine devient vide (échec).
      */
     protected boolean runInference(Position p, Move lastMove) {
-        if (useAC3) {
-            return ac3(p); // Algorithme le plus puissant
+        SolverMetrics m = metrics;
+        if (m != null) {
+            long t = System.nanoTime();
+            long before = m.prunes;
+            boolean consistent = inference(p, lastMove);
+            m.endInference(useGAC ? SolverMetrics.GAC
+                           : useAdaptive ? (lastPropagation == AdaptivePropagation.AC3 ? SolverMetrics.AC3 : SolverMetrics.FC)
+                           : useAC3 ? SolverMetrics.AC3 : SolverMetrics.FC,
+                           t, before, consistent);
+            return consistent;
+        }
+        return inference(p, lastMove);
+    }
+
+    private boolean inference(Position p, Move lastMove) {
+        if (!propagate(p, lastMove)) return false;
+        return !useDeduction || deduce(p, lastMove);
+    }
+
+    // Propagation sur les domaines seule (FC, AC-3 ou GAC), sans la déduction par règles
+    protected boolean propagate(Position p, Move lastMove) {
+        if (useGAC) {
+            return lineConsistency(p, lastMove); // Lignes entières contre la table des motifs
+        } else if (useAdaptive && lastMove != null) {
+            return adaptivePropagate(p, lastMove); // Niveau choisi selon la profondeur
+        } else if (useAC3 || useAdaptive) {
+            lastPropagation = AdaptivePropagation.AC3; // Adaptatif sans dernier coup : grille entière
+            return ac3(p, lastMove); // Algorithme le plus puissant sur les paires de cases
         } else if (useFC) {
             return forwardChecking(p, lastMove); // Algorithme plus léger
         }
         return true;
     }
 
+    protected boolean usesPropagation() {
+        return useFC || useAC3 || useGAC || useAdaptive;
+    }
+
+    /**
+     * Propagation adaptative (voir AdaptivePropagation) : rien, FC, ou FC puis AC-3 sur le même
+     * coup, selon la tranche de profondeur. FC et AC-3 sont mesurés séparément pour que le
+     * gain d'AC-3 soit ce qu'il trouve de plus que FC.
+     */
+    private boolean adaptivePropagate(Position p, Move lastMove) {
+        AdaptivePropagation policy = adaptive;
+        if (policy == null) policy = adaptive = new AdaptivePropagation(); // Worker de la recherche parallèle
+        long t0 = System.nanoTime();
+        int free = unassignedCount(p);
+        int bucket = policy.bucket(free);
+        int level = policy.choose(bucket, t0 - startNanos, nodeCount);
+        lastPropagation = level;
+        if (level == AdaptivePropagation.NONE) return true;
+
+        long before = prunedValues;
+        boolean consistent = forwardChecking(p, lastMove);
+        long t1 = System.nanoTime();
+        policy.recordFc(bucket, free, t1 - t0, prunedValues - before, !consistent);
+        if (consistent && level == AdaptivePropagation.AC3) {
+            before = prunedValues;
+            consistent = ac3(p, lastMove);
+            long t2 = System.nanoTime();
+            policy.recordAc3(bucket, free, t2 - t1, prunedValues - before, !consistent);
+        }
+        return consistent;
+    }
+
+    protected boolean usesInference() {
+        return usesPropagation() || useDeduction;
+    }
+
+    /**
+     * Préparation de la position de départ avant la recherche (structures propres à une
+     * propagation, propagation initiale). Retourne false si la position est déjà incohérente.
+     */
+    protected boolean prepare(Position p) {
+        return true;
+    }
+
     // MÉTHODES ABSTRAITES (A implémenter dans BinairoGame)
     // Ces méthodes dépendent spécifiquement des règles du jeu Binairo
 
@@ -207,11 +1194,31 @@ public abstract class CSPSolver {
     // Retourne la liste des cases vides (sous forme de Move sans valeur définie)
     public abstract List<Move> getUnassignedVariables(Position p);
 
+    // Nombre de cases vides, sans construire la liste
+    public abstract int unassignedCount(Position p);
+
     // Vérifie si poser 'move' est légal (règles immédiates: triple, parité...)
     public abstract boolean isValid(Position p, Move move);
 
     // Applique le coup et retourne une NOUVELLE position (copie)
     public abstract Position applyMove(Position p, Move move);
+
+    // Copie indépendante de la position (une par sous-tâche en parallèle)
+    public abstract Position copyPosition(Position p);
+
+    // Nouvelle instance du solveur concret (configuration copiée par forkSolver)
+    protected abstract CSPSolver newInstance();
+
+    // -- Mode en place (useTrail) --
+
+    // Marque l'état courant de la position (pour y revenir au backtrack)
+    public abstract int saveState(Position p);
+
+    // Annule toutes les modifications (coups et domaines) faites depuis la marque
+    public abstract void restoreState(Position p, int mark);
+
+    // Applique le coup directement sur la position en l'enregistrant pour restoreState
+    public abstract Position applyMoveInPlace(Position p, Move move);
     
     // Retourne la taille du domaine d'une variable (0, 1 ou 2 pour Binairo)
     public abstract int getDomainSize(Position p, Move var);
@@ -230,6 +1237,34 @@ public abstract class CSPSolver {
     // Applique Forward Checking : met à jour les domaines des voisins
     public abstract boolean forwardChecking(Position p, Move lastMove);
     
-    // Applique AC-3 : propagation complète
-    public abstract boolean ac3(Position p);
+    // Applique AC-3 : propagation jusqu'au point fixe, semée par le dernier coup (null = toutes les variables)
+    public abstract boolean ac3(Position p, Move lastMove);
+
+    // Cohérence généralisée sur les contraintes de ligne entière, semée par le dernier coup (null = tout)
+    public abstract boolean lineConsistency(Position p, Move lastMove);
+
+    // Déduction par règles : pose les cases forcées jusqu'au point fixe, en partant des lignes
+    // du dernier coup (null = toutes). Retourne false sur une contradiction.
+    public abstract boolean deduce(Position p, Move lastMove);
+
+    // -- Pour le retour arrière dirigé par les conflits (useBackjumping) --
+
+    // Active le suivi des niveaux de décision sur la position ; retourne le niveau maximal possible
+    protected abstract int enableReasons(Position p);
+
+    // Littéral (entier) de la décision 'move', tel que stocké dans les nogoods
+    protected abstract int literal(Position p, Move move);
+
+    // Ajoute à 'into' les niveaux dont dépendent le domaine de 'var' et les refus des règles
+    protected abstract void explainVariable(Position p, Move var, long[] into);
+
+    // Oublie la contradiction précédente (avant chaque inférence)
+    protected abstract void clearConflict(Position p);
+
+    // Ajoute à 'into' les niveaux qui expliquent le dernier échec ; false si aucun n'a été noté
+    protected abstract boolean explainConflict(Position p, long[] into);
+
+    // Vérifie les nogoods appris (magasin 'nogoods') qui contiennent la décision 'lastMove' :
+    // false si l'un est violé, élague les valeurs qu'ils interdisent
+    protected abstract boolean checkNogoods(Position p, Move lastMove);
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table de tous les motifs de ligne légaux pour une taille n : équilibrés (n/2 uns) et sans
+ * triple. Énumérée une fois par taille puis partagée (cache), en ordre croissant des masques.
+ * Une ligne d'une position garde un bitset sur les indices de cette table (motifs encore
+ * compatibles) ; withValue donne, pour chaque case k et valeur v, le bitset des motifs où la
+ * case k vaut v, pour le filtrer par un simple ET mot à mot.
+ *
+ * n <= 24 : 52 404 motifs au plus (819 mots par bitset de ligne).
+ */
+public class LinePatterns {
+
+    public static final int MAX_N = 24;
+
+    private static final ConcurrentHashMap<Integer, LinePatterns> CACHE = new ConcurrentHashMap<>();
+
+    public final int n;
+    public final int count;         // Nombre de motifs légaux
+    public final int words;         // Nombre de long d'un bitset de motifs
+    public final long[] patterns;   // Masque des 1 de chaque motif, trié
+    public final long[] withValue;  // Bitset des motifs ayant la valeur v en case k : mots [offset(k, v), +words)
+
+    // Table de la taille n, construite au premier appel ; null si n est impair ou trop grand
+    public static LinePatterns forSize(int n) {
+        if (n <= 0 || n > MAX_N || n % 2 != 0) return null;
+        return CACHE.computeIfAbsent(n, LinePatterns::new);
+    }
+
+    private LinePatterns(int n) {
+        this.n = n;
+        long full = (1L << n) - 1;
+        long[] found = new long[64];
+        int size = 0;
+        // Parcours des masques à n/2 uns en ordre croissant (astuce de Gosper), sans triple de 1 ni de 0
+        for (long p = (1L << (n / 2)) - 1; p <= full; ) {
+            long z = ~p & full;
+            if ((p & (p >>> 1) & (p >>> 2)) == 0 && (z & (z >>> 1) & (z >>> 2)) == 0) {
+                if (size == found.length) found = Arrays.copyOf(found, size * 2);
+                found[size++] = p;
+            }
+            long low = p & -p;
+            long ripple = p + low;
+            p = ripple | (((p ^ ripple) >>> 2) / low);
+        }
+        this.patterns = Arrays.copyOf(found, size);
+        this.count = size;
+        this.words = (count + 63) >>> 6;
+        this.withValue = new long[2 * n * words];
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < n; k++) {
+                int v = (int) ((patterns[i] >>> k) & 1);
+                withValue[offset(k, v) + (i >>> 6)] |= 1L << i;
+            }
+        }
+    }
+
+    // Indice du motif dans la table, -1 s'il n'est pas légal
+    public int indexOf(long pattern) {
+        int i = Arrays.binarySearch(patterns, pattern);
+        return i >= 0 ? i : -1;
+    }
+
+    public int offset(int k, int v) {
+        return (2 * k + v) * words;
+    }
+
+    // Masque du dernier mot d'un bitset de motifs (les bits au-delà de count restent à 0)
+    public long lastWordMask() {
+        int bits = count - ((words - 1) << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Multi-ensemble de motifs de lignes complètes (masque des 1, lignes de 64 cases au plus).
+ * Adressage ouvert à sondage linéaire : aucune allocation après la construction,
+ * et suppression par décalage arrière pour pouvoir annuler au backtrack.
+ */
+public class LineSet {
+
+    private long[] keys;
+    private int[] counts;   // 0 = emplacement libre
+    private int mask;
+
+    // Occurrences en trop : 0 tant que toutes les lignes complètes sont distinctes
+    public int duplicates;
+
+    public LineSet(int maxLines) {
+        int capacity = Integer.highestOneBit(Math.max(2, maxLines) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.counts = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public LineSet(LineSet other) {
+        this.keys = other.keys.clone();
+        this.counts = other.counts.clone();
+        this.mask = other.mask;
+        this.duplicates = other.duplicates;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    // Emplacement de la clé, ou emplacement libre où l'insérer
+    private int find(long key) {
+        int i = slot(key);
+        while (counts[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    public boolean contains(long key) {
+        return counts[find(key)] != 0;
+    }
+
+    public void add(long key) {
+        int i = find(key);
+        if (counts[i] == 0) keys[i] = key;
+        else duplicates++;
+        counts[i]++;
+    }
+
+    public void remove(long key) {
+        int i = find(key);
+        if (counts[i] == 0) return;
+        if (--counts[i] > 0) {
+            duplicates--;
+            return;
+        }
+        // Décalage arrière : on remonte les clés suivantes dont la place idéale le permet
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (counts[j] == 0) break;
+            int k = slot(keys[j]);
+            boolean stays = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (stays) continue;
+            keys[i] = keys[j];
+            counts[i] = counts[j];
+            counts[j] = 0;
+            i = j;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * Magasin borné de nogoods appris par le retour arrière dirigé par les conflits : ensembles de
+ * décisions (littéraux case/valeur) qui ne peuvent pas être vraies ensemble. Tableaux plats de
+ * capacité fixe (seul l'index des littéraux s'agrandit, au premier littéral trop grand). Plein, le magasin remplace le nogood
+ * le moins actif (activité = nombre de déclenchements, divisée par deux à chaque tour de capacité).
+ * Les littéraux sont des entiers positifs codés par le solveur (BinairoGame : ((r * n + c) << 1) | valeur) ;
+ * un index par littéral (bitset des emplacements qui le contiennent) évite de parcourir tout le
+ * magasin : le solveur ne vérifie que les nogoods du littéral qu'il vient de poser.
+ */
+public class NogoodStore {
+
+    public final int capacity;
+    public final int maxLength;     // Nogoods plus longs ignorés : ils ne se déclenchent presque jamais
+
+    private final int[] literals;   // Nogood i : [i * maxLength, i * maxLength + lengths[i])
+    private final int[] lengths;
+    private final int[] activity;
+    private final int slotWords;    // Mots d'un bitset d'emplacements
+    private long[] slotsWith;       // Littéral l : emplacements qui le contiennent, mots [l * slotWords, +slotWords)
+    private int size;
+    private int sinceDecay;
+
+    // Statistiques depuis le dernier clear
+    public long learned;
+    public long evicted;
+    public long hits;
+
+    public NogoodStore(int capacity, int maxLength) {
+        this.capacity = capacity;
+        this.maxLength = maxLength;
+        this.literals = new int[capacity * maxLength];
+        this.lengths = new int[capacity];
+        this.activity = new int[capacity];
+        this.slotWords = Math.max(1, (capacity + 63) >>> 6);
+        this.slotsWith = new long[64 * slotWords];
+    }
+
+    public int size() { return size; }
+
+    public int length(int i) { return lengths[i]; }
+
+    public int literal(int i, int j) { return literals[i * maxLength + j]; }
+
+    // Premier emplacement >= from dont le nogood contient le littéral 'lit', -1 s'il n'y en a plus
+    public int nextWith(int lit, int from) {
+        int base = lit * slotWords;
+        if (base >= slotsWith.length) return -1;
+        for (int w = from >>> 6; w < slotWords; w++) {
+            long bits = slotsWith[base + w] & (w == from >>> 6 ? -1L << from : -1L);
+            if (bits != 0) return (w << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        return -1;
+    }
+
+    // Le nogood i vient d'élaguer une valeur ou de couper une branche
+    public void hit(int i) {
+        activity[i]++;
+        hits++;
+    }
+
+    // Enregistre les 'len' premiers littéraux de 'lits' ; false si le nogood est vide ou trop long
+    public boolean add(int[] lits, int len) {
+        if (len == 0 || len > maxLength || capacity == 0) return false;
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else {
+            slot = 0;
+            for (int i = 1; i < capacity; i++) {
+                if (activity[i] < activity[slot]) slot = i;
+            }
+            evicted++;
+            index(slot, false);
+        }
+        System.arraycopy(lits, 0, literals, slot * maxLength, len);
+        lengths[slot] = len;
+        index(slot, true);
+        activity[slot] = 0;
+        learned++;
+        if (++sinceDecay == capacity) {
+            sinceDecay = 0;
+            for (int i = 0; i < size; i++) activity[i] >>>= 1;
+        }
+        return true;
+    }
+
+    // Ajoute (ou retire) l'emplacement dans l'index de chacun de ses littéraux
+    private void index(int slot, boolean on) {
+        for (int j = 0; j < lengths[slot]; j++) {
+            int base = literals[slot * maxLength + j] * slotWords;
+            // Agrandi par littéraux entiers : nextWith lit les slotWords mots d'un littéral indexé
+            if (base + slotWords > slotsWith.length) {
+                slotsWith = Arrays.copyOf(slotsWith, Math.max(base + slotWords, slotsWith.length * 2));
+            }
+            int i = base + (slot >>> 6);
+            if (on) slotsWith[i] |= 1L << slot; else slotsWith[i] &= ~(1L << slot);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) index(i, false);
+        size = 0;
+        sinceDecay = 0;
+        Arrays.fill(activity, 0);
+        learned = evicted = hits = 0;
+    }
+}
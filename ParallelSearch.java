@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sous-tâche de la recherche parallèle (fork/join).
+ * Tant que la profondeur de découpage n'est pas atteinte, chaque nœud à plusieurs valeurs
+ * candidates produit une sous-tâche par valeur (sur sa propre copie de position) ; les
+ * nœuds à une seule valeur sont enchaînés dans la même tâche. Au-delà, la tâche appelle le
+ * backtracking séquentiel d'un solveur qui lui est propre. Le vol de travail de ForkJoinPool
+ * répartit les tâches, et le drapeau partagé 'found' arrête tous les workers.
+ */
+public class ParallelSearch extends RecursiveTask<Position> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CSPSolver template;
+    private final Position start;
+    private final int depth;
+    private final int splitDepth;
+    private final AtomicBoolean found;
+    private final AtomicLongArray workerNodes;
+
+    ParallelSearch(CSPSolver template, Position start, int depth, int splitDepth,
+                   AtomicBoolean found, AtomicLongArray workerNodes) {
+        this.template = template;
+        this.start = start;
+        this.depth = depth;
+        this.splitDepth = splitDepth;
+        this.found = found;
+        this.workerNodes = workerNodes;
+    }
+
+    @Override
+    protected Position compute() {
+        CSPSolver solver = template.forkSolver();
+        solver.cancelled = found;
+        try {
+            Position p = start;
+            while (depth < splitDepth) {
+                if (found.get()) return null;
+                solver.nodeCount++;
+                if (solver.isComplete(p)) return solved(p);
+
+                Move var = solver.selectVariable(p);
+                if (var == null) return null;
+
+                // Un enfant par valeur qui passe les règles et la propagation
+                List<Position> children = new ArrayList<>(2);
+                for (int val : solver.orderDomainValues(p, var)) {
+                    BinairoMove move = new BinairoMove(((BinairoMove) var).row, ((BinairoMove) var).col, val);
+                    if (!solver.isValid(p, move)) continue;
+                    Position child = solver.applyMove(p, move);
+                    if (solver.usesInference() && !solver.runInference(child, move)) continue;
+                    children.add(child);
+                }
+
+                if (children.isEmpty()) return null;
+                if (children.size() == 1) {
+                    // Coup forcé : pas de découpage, on continue dans la même tâche
+                    p = children.get(0);
+                    continue;
+                }
+                return split(children);
+            }
+
+            // Sous la profondeur de découpage : recherche séquentielle classique (ou dirigée par les conflits)
+            Position result = solver.search(p);
+            return result != null ? solved(result) : null;
+        } finally {
+            workerNodes.addAndGet(workerIndex(), solver.nodeCount);
+        }
+    }
+
+    // Les premiers enfants sont confiés au pool (vol de travail), le dernier est exploré ici
+    private Position split(List<Position> children) {
+        List<ParallelSearch> forked = new ArrayList<>(children.size());
+        for (int i = 0; i < children.size() - 1; i++) {
+            ParallelSearch task = new ParallelSearch(template, children.get(i), depth + 1, splitDepth, found, workerNodes);
+            task.fork();
+            forked.add(task);
+        }
+        Position result = new ParallelSearch(template, children.get(children.size() - 1), depth + 1,
+                                             splitDepth, found, workerNodes).compute();
+        for (ParallelSearch task : forked) {
+            Position r = task.join();
+            if (result == null) result = r;
+        }
+        return result;
+    }
+
+    private Position solved(Position p) {
+        found.set(true);
+        return p;
+    }
+
+    private int workerIndex() {
+        Thread t = Thread.currentThread();
+        int index = t instanceof ForkJoinWorkerThread ? ((ForkJoinWorkerThread) t).getPoolIndex() : 0;
+        return index % workerNodes.length();
+    }
+}
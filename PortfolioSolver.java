@@ -0,0 +1,234 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Portefeuille de configurations : la même grille est résolue en parallèle par plusieurs
+ * solveurs (propagations différentes, graines différentes), le premier résultat concluant
+ * (solution, ou preuve d'absence) est rendu et les autres sont arrêtés par un drapeau partagé,
+ * relu tous les checkInterval nœuds. Aucune configuration ne gagne partout : la course borne
+ * la queue des temps due aux grilles où la configuration par défaut joue de malchance.
+ *
+ * Un moteur par membre, créé une fois et réutilisé ; une course à la fois par portefeuille
+ * (solve est synchronisé). Les victoires de chaque membre sont comptées (wins).
+ */
+public class PortfolioSolver implements AutoCloseable {
+
+    public final SolverConfig[] configs;
+    public final long[] wins;           // Courses gagnées par chaque membre
+    public final SolutionCache cache;   // Consulté avant la course (null = pas de cache)
+
+    private final BinairoGame[] engines;
+    private final ExecutorService pool;
+
+    // Période de relecture du drapeau d'annulation de l'appelant
+    private static final long CANCEL_POLL_MS = 5;
+
+    // Drapeau d'arrêt de la course en cours (null entre deux courses) ; arrêt demandé par cancel
+    private volatile AtomicBoolean stop;
+    private volatile boolean cancelRequested;
+
+    /**
+     * Portefeuille par défaut : la configuration de référence, puis des propagations plus
+     * fortes ou des ordres différents, avec départage aléatoire et redémarrages pour que
+     * deux membres proches n'explorent pas le même arbre. Limite de temps commune.
+     */
+    public static List<SolverConfig> defaultConfigs(Long timeLimitMs) {
+        List<SolverConfig> configs = new ArrayList<>();
+        for (String heuristics : new String[] {"mrv,fc", "mrv,gac,presolve,deduce", "wdeg,fc,luby", "mrv,fc,cbj,luby"}) {
+            SolverConfig config = SolverConfig.parse(heuristics);
+            configs.add(config.toBuilder()
+                    .randomizeTies(config.restartStrategy != CSPSolver.RESTART_NONE)
+                    .timeLimitMs(timeLimitMs)
+                    .build());
+        }
+        return configs;
+    }
+
+    /**
+     * Courses simultanées pour 'threads' cœurs : chaque portefeuille occupe un thread par
+     * membre, au moins une course.
+     */
+    public static int racesFor(int threads, int members) {
+        return Math.max(1, threads / members);
+    }
+
+    public PortfolioSolver(List<SolverConfig> configs, long seed) {
+        this(configs, seed, null);
+    }
+
+    public PortfolioSolver(List<SolverConfig> configs, long seed, SolutionCache cache) {
+        this.cache = cache;
+        this.configs = configs.toArray(new SolverConfig[0]);
+        this.wins = new long[this.configs.length];
+        this.engines = new BinairoGame[this.configs.length];
+        for (int i = 0; i < engines.length; i++) {
+            engines[i] = new BinairoGame(this.configs[i]);
+            engines[i].random = new Random(seed + i);
+        }
+        // Un thread par membre : sur moins de cœurs, les membres se partagent le temps
+        this.pool = Executors.newFixedThreadPool(engines.length, r -> {
+            Thread t = new Thread(r, "portfolio");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Lance tous les membres sur 'pos' (non modifiée) et rend le premier résultat concluant.
+     * Si aucun membre ne conclut (limites de temps, annulation), le résultat est interrompu.
+     * La méthode ne rend la main qu'une fois tous les membres arrêtés : leurs moteurs sont
+     * libres pour la course suivante.
+     */
+    public Result solve(BinairoPosition pos) {
+        return solve(pos, null);
+    }
+
+    /**
+     * solve, arrêté aussi quand 'cancel' (peut être null) est levé par un autre thread :
+     * le drapeau est relu toutes les CANCEL_POLL_MS ms pendant la course.
+     */
+    public synchronized Result solve(BinairoPosition pos, AtomicBoolean cancel) {
+        long t0 = System.nanoTime();
+        SolutionCache.Key key = null;
+        if (cache != null) {
+            key = SolutionCache.keyOf(pos);
+            BinairoPosition cached = cache.get(key);
+            if (cached != null) {
+                return new Result(new SolveResult(cached, 0, (System.nanoTime() - t0) / 1e9, false, false, null),
+                                  -1, null, 0, true);
+            }
+        }
+
+        AtomicBoolean race = new AtomicBoolean();
+        this.cancelRequested = false;
+        this.stop = race;
+        Position[] found = new Position[engines.length];
+        CompletionService<Integer> done = new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < engines.length; i++) {
+            int member = i;
+            engines[i].cancelled = race;
+            done.submit(() -> {
+                found[member] = engines[member].solve(pos);
+                return member;
+            });
+        }
+
+        int winner = -1;
+        long totalNodes = 0;
+        RuntimeException failure = null;
+        try {
+            for (int remaining = engines.length; remaining > 0; ) {
+                Future<Integer> next = cancel == null ? done.take() : done.poll(CANCEL_POLL_MS, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    if (cancel.get()) cancel();
+                    continue;
+                }
+                remaining--;
+                int member;
+                try {
+                    member = next.get();
+                } catch (ExecutionException e) {
+                    race.set(true);
+                    if (failure == null) failure = new IllegalStateException("Échec d'un membre du portefeuille", e.getCause());
+                    continue;
+                }
+                BinairoGame engine = engines[member];
+                totalNodes += engine.nodeCount;
+                // interrupted : limite de temps ou arrêt par le vainqueur, pas une réponse
+                if (winner < 0 && !engine.interrupted) {
+                    winner = member;
+                    race.set(true);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Les membres s'arrêtent d'eux-mêmes au prochain point de vérification
+            race.set(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            this.stop = null;
+        }
+        if (failure != null && winner < 0) throw failure;
+
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        SolveResult result;
+        if (winner >= 0) {
+            wins[winner]++;
+            BinairoGame w = engines[winner];
+            result = new SolveResult(found[winner], w.nodeCount, seconds, false, false, null);
+            if (key != null && found[winner] != null) cache.put(key, (BinairoPosition) found[winner]);
+        } else {
+            result = new SolveResult(null, totalNodes, seconds, true, cancelRequested, null);
+        }
+        return new Result(result, winner, winner >= 0 ? configs[winner] : null, totalNodes, false);
+    }
+
+    /**
+     * Arrête la course en cours (appelable depuis n'importe quel thread) : solve rend alors
+     * un résultat interrompu, sauf si un membre avait déjà conclu.
+     */
+    public void cancel() {
+        AtomicBoolean race = stop;
+        if (race == null) return;
+        cancelRequested = true;
+        race.set(true);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("portefeuille");
+        for (int i = 0; i < configs.length; i++) {
+            sb.append(i == 0 ? " " : ", ").append(memberName(i)).append(" : ").append(wins[i]);
+        }
+        return sb.toString();
+    }
+
+    // Nom affiché d'un membre : liste d'heuristiques et numéro (graine)
+    public String memberName(int member) {
+        return configs[member] + "#" + member;
+    }
+
+    /**
+     * Résultat d'une course : résultat du vainqueur (temps de la course entière), membre
+     * vainqueur (-1 si aucun n'a conclu, ou solution servie par le cache) et nœuds explorés
+     * par tous les membres.
+     */
+    public static final class Result {
+        public final SolveResult result;
+        public final int winner;
+        public final SolverConfig winnerConfig;
+        public final long totalNodes;
+        public final boolean cacheHit;
+
+        Result(SolveResult result, int winner, SolverConfig winnerConfig, long totalNodes, boolean cacheHit) {
+            this.result = result;
+            this.winner = winner;
+            this.winnerConfig = winnerConfig;
+            this.totalNodes = totalNodes;
+            this.cacheHit = cacheHit;
+        }
+
+        // Membre vainqueur tel qu'affiché (voir memberName), "cache" ou "none"
+        public String winnerName() {
+            return cacheHit ? "cache" : winner < 0 ? "none" : winnerConfig + "#" + winner;
+        }
+
+        @Override
+        public String toString() {
+            return result + " winner=" + winnerName() + " total_nodes=" + totalNodes;
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
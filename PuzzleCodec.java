@@ -0,0 +1,188 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Format binaire compact des grilles : 2 bits par case.
+ * Enregistrement = 1 octet n (taille) + ceil(n*n / 4) octets de cases, en ordre ligne-major,
+ * 4 cases par octet en commençant par les bits de poids faible :
+ *   00 = vide, 01 = 0, 10 = 1
+ * Une grille 20x20 occupe 101 octets. Un fichier est une simple suite d'enregistrements,
+ * lue par projection mémoire (Reader) et étendue en ajout (Writer).
+ *
+ * Conversion : java PuzzleCodec pack grilles.txt grilles.bin
+ *              java PuzzleCodec unpack grilles.bin grilles.txt
+ */
+public class PuzzleCodec {
+
+    private static final int CELL_EMPTY = 0b00;
+    private static final int CELL_ZERO = 0b01;
+    private static final int CELL_ONE = 0b10;
+
+    public static int recordSize(int n) {
+        return 1 + (n * n + 3) / 4;
+    }
+
+    public static void encode(BinairoPosition pos, ByteBuffer out) {
+        int n = pos.n;
+        if (n > 255 || n == 0 || n % 2 != 0) throw new IllegalArgumentException("Taille non encodable : " + n);
+        out.put((byte) n);
+        int acc = 0, shift = 0;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int v = pos.get(r, c);
+                int code = v == BinairoPosition.EMPTY ? CELL_EMPTY : v == BinairoPosition.ZERO ? CELL_ZERO : CELL_ONE;
+                acc |= code << shift;
+                shift += 2;
+                if (shift == 8) {
+                    out.put((byte) acc);
+                    acc = 0;
+                    shift = 0;
+                }
+            }
+        }
+        if (shift != 0) out.put((byte) acc);
+    }
+
+    // Décode l'enregistrement à la position courante du tampon (lecture directe, sans copie).
+    // Indices hors règles : IllegalArgumentException, comme BinairoPosition.parse
+    public static BinairoPosition decode(ByteBuffer in) {
+        int n = in.get() & 0xFF;
+        if (n == 0 || n % 2 != 0) throw new IllegalStateException("Enregistrement corrompu à l'octet " + (in.position() - 1) + " : taille " + n);
+        BinairoPosition pos = new BinairoPosition(n);
+        int cells = n * n;
+        int acc = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if ((cell & 3) == 0) acc = in.get() & 0xFF;
+            int code = (acc >>> ((cell & 3) << 1)) & 0b11;
+            if (code == CELL_ZERO) pos.assign(cell / n, cell % n, BinairoPosition.ZERO);
+            else if (code == CELL_ONE) pos.assign(cell / n, cell % n, BinairoPosition.ONE);
+            else if (code != CELL_EMPTY) throw new IllegalStateException("Case corrompue à l'octet " + in.position());
+        }
+        // Enregistrement entièrement lu : une grille hors règles n'empêche pas de lire la suivante
+        pos.checkClues();
+        return pos;
+    }
+
+    /**
+     * Lecture séquentielle par projection mémoire (FileChannel.map) : les enregistrements sont
+     * décodés directement depuis les pages du fichier. Les fichiers de plus de 2 Go sont lus
+     * par fenêtres successives, reprojetées au début de l'enregistrement qui déborde.
+     */
+    public static class Reader implements Iterator<BinairoPosition>, Closeable {
+
+        private static final long WINDOW = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        public Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return windowStart + window.position() < size;
+        }
+
+        @Override
+        public BinairoPosition next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            try {
+                if (!window.hasRemaining() || window.remaining() < recordSize(window.get(window.position()) & 0xFF)) {
+                    map(windowStart + window.position());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (window.remaining() < recordSize(window.get(window.position()) & 0xFF)) {
+                throw new IllegalStateException("Enregistrement tronqué en fin de fichier");
+            }
+            return decode(window);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Écriture en ajout : les enregistrements sont accumulés dans un tampon direct
+     * et vidés en fin de fichier par blocs.
+     */
+    public static class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+        public Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                            StandardOpenOption.APPEND);
+        }
+
+        public void write(BinairoPosition pos) throws IOException {
+            if (buffer.remaining() < recordSize(pos.n)) flush();
+            encode(pos, buffer);
+        }
+
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("pack") || args[0].equals("unpack"))) {
+            System.err.println("Usage : java PuzzleCodec pack|unpack <entrée> <sortie>");
+            System.exit(2);
+        }
+        Path in = Paths.get(args[1]), out = Paths.get(args[2]);
+        long count = 0;
+        if (args[0].equals("pack")) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(in.toFile()), StandardCharsets.UTF_8));
+                 Writer writer = new Writer(out)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    writer.write(BinairoPosition.parse(line));
+                    count++;
+                }
+            }
+        } else {
+            try (Reader reader = new Reader(in);
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out.toFile()), StandardCharsets.UTF_8))) {
+                while (reader.hasNext()) {
+                    writer.write(reader.next().toLine());
+                    writer.write('\n');
+                    count++;
+                }
+            }
+        }
+        System.err.println(count + " grilles converties.");
+    }
+}
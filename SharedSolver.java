@@ -0,0 +1,63 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Solveur partageable entre threads, sans verrou : une configuration figée (SolverConfig) et,
+ * par thread, un moteur BinairoGame créé au premier appel puis réutilisé (espaces de travail,
+ * pile du moteur itératif, magasin de nogoods et JIT restent chauds). Chaque résolution rend
+ * ses statistiques dans un SolveResult au lieu de les laisser dans des champs partagés ; la
+ * position de l'appelant n'est jamais modifiée. Le cache de solutions éventuel est commun.
+ *
+ * Les moteurs vivent aussi longtemps que leurs threads : à utiliser depuis un pool de taille
+ * fixe (workers de BatchSolver, de SolverServer).
+ */
+public class SharedSolver {
+
+    public final SolverConfig config;
+    public final SolutionCache cache;   // null = pas de cache
+
+    private final ThreadLocal<BinairoGame> engines = ThreadLocal.withInitial(this::newEngine);
+
+    public SharedSolver(SolverConfig config) {
+        this(config, null);
+    }
+
+    public SharedSolver(SolverConfig config, SolutionCache cache) {
+        this.config = config;
+        this.cache = cache;
+    }
+
+    private BinairoGame newEngine() {
+        BinairoGame g = new BinairoGame(config);
+        g.solutionCache = cache;
+        return g;
+    }
+
+    public SolveResult solve(BinairoPosition pos) {
+        return solve(pos, null);
+    }
+
+    /**
+     * Résout 'pos' avec le moteur du thread appelant. 'cancel' (peut être null) est relu tous
+     * les checkInterval nœuds : le lever depuis un autre thread arrête cette résolution seule,
+     * avec un résultat marqué annulé.
+     */
+    public SolveResult solve(BinairoPosition pos, AtomicBoolean cancel) {
+        BinairoGame g = engines.get();
+        g.cancelled = cancel;
+        try {
+            Position res = g.solveCached(pos);
+            boolean cancelled = res == null && g.interrupted && cancel != null && cancel.get();
+            return new SolveResult(res, g.nodeCount, g.executionTime, g.interrupted, cancelled,
+                                   g.metrics != null ? g.metrics.snapshot() : null);
+        } finally {
+            g.cancelled = null;
+        }
+    }
+
+    // Nombre de solutions, borné par 'limit' (-1 si le compte a été interrompu)
+    public int countSolutions(BinairoPosition pos, int limit) {
+        BinairoGame g = engines.get();
+        int count = g.countSolutions(pos, limit);
+        return g.interrupted ? -1 : count;
+    }
+}
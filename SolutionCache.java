@@ -0,0 +1,199 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache de solutions indexé par forme canonique : les règles du Binairo sont invariantes par
+ * les 8 symétries du carré (rotations, miroirs, transpositions) et par l'échange 0/1, donc une
+ * grille tournée, retournée ou inversée d'une grille déjà résolue a la solution transformée.
+ * La forme canonique est le plus petit des 16 encodages (2 bits par case : vide, 0, 1) ; la
+ * solution est stockée dans ce repère (1 bit par case) et ramenée dans celui de la grille
+ * demandée par la transformation inverse.
+ *
+ * Taille bornée en nombre d'entrées, éviction LRU (LinkedHashMap en ordre d'accès).
+ * Méthodes synchronisées : un cache peut être partagé entre workers.
+ */
+public class SolutionCache {
+
+    public final int capacity;
+
+    // Clé canonique -> solution dans le repère canonique (bit à 1 = valeur 1)
+    private final LinkedHashMap<Key, long[]> entries;
+
+    // Statistiques depuis la création (ou le dernier clear), lues par les accesseurs synchronisés
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SolutionCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Forme canonique d'une grille, avec la transformation qui y mène (à garder pour
+     * ramener la solution). Calculée une fois, avant la résolution, et servie à get et put.
+     */
+    public static Key keyOf(BinairoPosition pos) {
+        int n = pos.n;
+        int[] cells = new int[n * n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) cells[r * n + c] = pos.isEmpty(r, c) ? 0 : 1 + pos.get(r, c);
+        }
+        long[] best = null;
+        int bestSym = 0, bestSwap = 0;
+        long[] buf = new long[(n * n + 31) >>> 5];
+        for (int sym = 0; sym < 8; sym++) {
+            for (int swap = 0; swap < 2; swap++) {
+                Arrays.fill(buf, 0);
+                for (int r = 0; r < n; r++) {
+                    for (int c = 0; c < n; c++) {
+                        int code = cells[source(sym, n, r, c)];
+                        if (swap == 1 && code != 0) code = 3 - code;
+                        int i = r * n + c;
+                        buf[i >>> 5] |= (long) code << ((i & 31) << 1);
+                    }
+                }
+                if (best == null || compare(buf, best) < 0) {
+                    best = buf.clone();
+                    bestSym = sym;
+                    bestSwap = swap;
+                }
+            }
+        }
+        return new Key(n, best, bestSym, bestSwap);
+    }
+
+    // Solution de la grille de clé 'key' dans son propre repère, null si absente
+    public synchronized BinairoPosition get(Key key) {
+        long[] bits = entries.get(key);
+        if (bits == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        int n = key.n;
+        BinairoPosition sol = new BinairoPosition(n);
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int i = r * n + c;
+                int val = (int) (bits[i >>> 6] >>> (i & 63)) & 1;
+                int s = source(key.sym, n, r, c);
+                sol.assign(s / n, s % n, val ^ key.swap);
+            }
+        }
+        return sol;
+    }
+
+    public BinairoPosition get(BinairoPosition pos) {
+        return get(keyOf(pos));
+    }
+
+    // Enregistre la solution (complète) de la grille de clé 'key', exprimée dans le repère de la grille
+    public synchronized void put(Key key, BinairoPosition solution) {
+        if (capacity <= 0) return;
+        int n = key.n;
+        long[] bits = new long[(n * n + 63) >>> 6];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int s = source(key.sym, n, r, c);
+                int val = solution.get(s / n, s % n) ^ key.swap;
+                int i = r * n + c;
+                if (val == 1) bits[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        entries.put(key, bits);
+        Iterator<Map.Entry<Key, long[]>> eldest = entries.entrySet().iterator();
+        while (entries.size() > capacity) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        hits = misses = evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "cache " + entries.size() + "/" + capacity + " (succès " + hits + ", échecs " + misses
+                + ", évictions " + evictions + ")";
+    }
+
+    /**
+     * Case de la grille d'origine lue en (r, c) par la symétrie 'sym' : 0 identité,
+     * 1-3 rotations d'un quart de tour, 4-5 miroirs, 6-7 transpositions. Retourne r * n + c.
+     */
+    private static int source(int sym, int n, int r, int c) {
+        int m = n - 1;
+        switch (sym) {
+            case 0:  return r * n + c;
+            case 1:  return (m - c) * n + r;
+            case 2:  return (m - r) * n + (m - c);
+            case 3:  return c * n + (m - r);
+            case 4:  return r * n + (m - c);
+            case 5:  return (m - r) * n + c;
+            case 6:  return c * n + r;
+            default: return (m - c) * n + (m - r);
+        }
+    }
+
+    // Ordre lexicographique non signé, mot de poids fort (fin de grille) d'abord
+    private static int compare(long[] a, long[] b) {
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i] != b[i]) return Long.compareUnsigned(a[i], b[i]);
+        }
+        return 0;
+    }
+
+    /**
+     * Forme canonique (égalité et hachage sur la taille et l'encodage seuls) et transformation
+     * de la grille d'origine vers cette forme.
+     */
+    public static final class Key {
+        final int n;
+        final long[] words;
+        final int sym;
+        final int swap;
+        private final int hash;
+
+        Key(int n, long[] words, int sym, int swap) {
+            this.n = n;
+            this.words = words;
+            this.sym = sym;
+            this.swap = swap;
+            this.hash = 31 * n + Arrays.hashCode(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return n == k.n && Arrays.equals(words, k.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
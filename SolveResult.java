@@ -0,0 +1,37 @@
+/**
+ * Résultat d'une résolution (CSPSolver.solveResult, solveAsync, SharedSolver.solve) : solution
+ * éventuelle et statistiques figées à la fin de la recherche, partielles si elle a été interrompue.
+ */
+public final class SolveResult {
+
+    public final Position solution;         // null : pas de solution, ou recherche interrompue
+    public final long nodeCount;
+    public final double executionTime;      // En secondes
+    public final boolean interrupted;       // Limite de temps ou de nœuds, ou annulation : non concluant
+    public final boolean cancelled;         // Arrêt demandé par cancel()
+    public final SolverMetrics.Snapshot metrics; // null si les mesures sont désactivées
+
+    public SolveResult(Position solution, long nodeCount, double executionTime,
+                       boolean interrupted, boolean cancelled, SolverMetrics.Snapshot metrics) {
+        this.solution = solution;
+        this.nodeCount = nodeCount;
+        this.executionTime = executionTime;
+        this.interrupted = interrupted;
+        this.cancelled = cancelled;
+        this.metrics = metrics;
+    }
+
+    public boolean isSolved() {
+        return solution != null;
+    }
+
+    // Même vocabulaire que la sortie de BatchSolver
+    public String status() {
+        return solution != null ? "SOLVED" : cancelled ? "CANCELLED" : interrupted ? "TIMEOUT" : "NO_SOLUTION";
+    }
+
+    @Override
+    public String toString() {
+        return status() + " nodes=" + nodeCount + " ms=" + Math.round(executionTime * 1000);
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Banc d'essai reproductible du solveur, en remplacement des mesures à froid de compareAlgorithms.
+ *
+ * Corpus fixe : pour chaque taille et chaque densité d'indices, des grilles tirées d'une graine
+ * fixe (solution complète obtenue avec un budget de nœuds, donc identique sur toute machine),
+ * enregistrées dans un fichier corpus relu aux exécutions suivantes et jamais réécrit. Le
+ * fichier est au format de BatchSolver (une grille par ligne, en-têtes '#').
+ *
+ * Mesure, pour chaque configuration d'heuristiques et chaque groupe (taille, densité) :
+ * itérations de chauffe (JIT) non comptées, puis itérations mesurées avec System.nanoTime.
+ * Rapporte le débit (grilles/s), le temps moyen par grille (± écart-type entre itérations),
+ * les nœuds par grille et les octets alloués par grille (compteur par thread de la JVM).
+ * Le CSV porte aussi les caractéristiques moyennes du groupe (AutoConfig.Features), ce qui
+ * permet d'en apprendre une table de configuration automatique (java AutoConfig --train).
+ *
+ * Usage : java SolverBenchmark [--corpus fichier] [--sizes 6,8,...] [--densities 0.25,0.4]
+ *                              [--instances N] [--configs mrv,fc;mrv,ac3|all] [--warmup N]
+ *                              [--iterations N] [--timeout ms] [--csv fichier]
+ */
+public class SolverBenchmark {
+
+    private static final long CORPUS_SEED = 0x5EEDL;
+
+    private String corpusFile = "bench-corpus.txt";
+    private int[] sizes = {6, 8, 10, 12, 14, 16, 18, 20, 22, 24};
+    private double[] densities = {0.25, 0.40, 0.55};
+    private int instances = 5;
+    private List<String> configs = new ArrayList<>(Arrays.asList(
+            "mrv", "mrv,fc", "mrv,degree,fc", "mrv,lcv,fc", "mrv,ac3", "mrv,degree,ac3", "mrv,gac",
+            "mrv,fc,presolve,deduce", "mrv,gac,presolve,deduce", "mrv,fc,cbj"));
+    private int warmup = 3;
+    private int iterations = 5;
+    private long timeLimitMs = 2000;
+    private String csvFile = null;
+
+    // Groupe du corpus : toutes les grilles d'une taille et d'une densité
+    private static class Group {
+        final int n;
+        final double density;
+        final List<BinairoPosition> puzzles = new ArrayList<>();
+
+        Group(int n, double density) {
+            this.n = n;
+            this.density = density;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        SolverBenchmark bench = new SolverBenchmark();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--corpus":     bench.corpusFile = args[++i]; break;
+                case "--sizes":      bench.sizes = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                case "--densities":  bench.densities = Arrays.stream(args[++i].split(",")).mapToDouble(Double::parseDouble).toArray(); break;
+                case "--instances":  bench.instances = Integer.parseInt(args[++i]); break;
+                case "--configs":    bench.configs = parseConfigs(args[++i].toLowerCase()); break;
+                case "--warmup":     bench.warmup = Integer.parseInt(args[++i]); break;
+                case "--iterations": bench.iterations = Integer.parseInt(args[++i]); break;
+                case "--timeout":    bench.timeLimitMs = Long.parseLong(args[++i]); break;
+                case "--csv":        bench.csvFile = args[++i]; break;
+                default:
+                    System.err.println("Option inconnue : " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        try {
+            bench.run();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    // "all" = les 64 combinaisons des drapeaux, sinon configurations séparées par ';'
+    private static List<String> parseConfigs(String spec) {
+        List<String> list = new ArrayList<>();
+        if (spec.equals("all")) {
+            String[] flags = {"mrv", "degree", "lcv", "fc", "ac3", "gac"};
+            for (int m = 0; m < 1 << flags.length; m++) {
+                StringJoiner sj = new StringJoiner(",");
+                for (int b = 0; b < flags.length; b++) if ((m & (1 << b)) != 0) sj.add(flags[b]);
+                list.add(m == 0 ? "bt" : sj.toString());
+            }
+        } else {
+            list.addAll(Arrays.asList(spec.split(";")));
+        }
+        return list;
+    }
+
+    public void run() throws IOException {
+        List<Group> corpus = loadOrBuildCorpus();
+
+        PrintWriter csv = null;
+        if (csvFile != null) {
+            csv = new PrintWriter(new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8));
+            csv.println("config,n,density,puzzles,ops_per_s,avg_ms,stddev_ms,nodes_per_op,bytes_per_op,timeouts,saturation,forced");
+        }
+
+        System.out.println(String.format("%-24s | %3s | %5s | %10s | %10s | %9s | %10s | %12s | %s",
+                "Config", "n", "Dens.", "Grilles/s", "ms/grille", "± ms", "Nœuds", "Octets/gr.", "Timeouts"));
+        System.out.println("-------------------------------------------------------------------------------------------------------------------");
+
+        for (String config : configs) {
+            BinairoGame solver = newSolver(config);
+            for (Group group : corpus) {
+                for (int i = 0; i < warmup; i++) runIteration(solver, group, null);
+
+                long[] totals = new long[4]; // ns, nœuds, octets, timeouts
+                double[] iterMs = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    long ns = runIteration(solver, group, totals);
+                    iterMs[i] = ns / 1e6 / group.puzzles.size();
+                }
+
+                long ops = (long) iterations * group.puzzles.size();
+                double avgMs = totals[0] / 1e6 / ops;
+                double opsPerSec = ops / (totals[0] / 1e9);
+                double stddev = stddev(iterMs);
+                long nodes = totals[1] / ops;
+                long bytes = totals[2] < 0 ? -1 : totals[2] / ops;
+
+                System.out.println(String.format("%-24s | %3d | %5.2f | %10.1f | %10.3f | %9.3f | %10d | %12s | %d",
+                        config, group.n, group.density, opsPerSec, avgMs, stddev, nodes,
+                        bytes < 0 ? "n/a" : Long.toString(bytes), totals[3]));
+                if (csv != null) {
+                    double[] features = meanFeatures(group);
+                    csv.println(String.format(Locale.ROOT, "%s,%d,%.2f,%d,%.3f,%.4f,%.4f,%d,%d,%d,%.4f,%.4f",
+                            config.replace(',', '+'), group.n, group.density, group.puzzles.size(),
+                            opsPerSec, avgMs, stddev, nodes, bytes, totals[3], features[0], features[1]));
+                }
+            }
+        }
+
+        if (csv != null) csv.close();
+    }
+
+    /**
+     * Résout une fois chaque grille du groupe et renvoie le temps total en nanosecondes.
+     * Le mélange des valeurs est re-semé à chaque grille : même recherche à chaque itération.
+     */
+    private long runIteration(BinairoGame solver, Group group, long[] totals) {
+        long elapsed = 0;
+        for (int i = 0; i < group.puzzles.size(); i++) {
+            BinairoPosition start = group.puzzles.get(i); // copiée par solve
+            solver.random = new Random(CORPUS_SEED + i);
+
+            long bytes0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            Position res = solver.solve(start);
+            long ns = System.nanoTime() - t0;
+            long bytes1 = allocatedBytes();
+
+            elapsed += ns;
+            if (totals != null) {
+                totals[0] += ns;
+                totals[1] += solver.nodeCount;
+                totals[2] = bytes0 < 0 || totals[2] < 0 ? -1 : totals[2] + (bytes1 - bytes0);
+                if (res == null && solver.interrupted) totals[3]++;
+            }
+        }
+        return elapsed;
+    }
+
+    // Saturation et part de cases forcées, moyennées sur les grilles du groupe
+    private static double[] meanFeatures(Group group) {
+        double[] sum = new double[2];
+        for (BinairoPosition p : group.puzzles) {
+            AutoConfig.Features f = AutoConfig.Features.of(p);
+            sum[0] += f.saturation;
+            sum[1] += f.forced;
+        }
+        sum[0] /= group.puzzles.size();
+        sum[1] /= group.puzzles.size();
+        return sum;
+    }
+
+    // Octets alloués par le thread courant, -1 si la JVM ne le mesure pas
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (!(mx instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean sunMx = (com.sun.management.ThreadMXBean) mx;
+        if (!sunMx.isThreadAllocatedMemorySupported() || !sunMx.isThreadAllocatedMemoryEnabled()) return -1;
+        return sunMx.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static double stddev(double[] xs) {
+        if (xs.length < 2) return 0;
+        double mean = 0;
+        for (double x : xs) mean += x;
+        mean /= xs.length;
+        double var = 0;
+        for (double x : xs) var += (x - mean) * (x - mean);
+        return Math.sqrt(var / (xs.length - 1));
+    }
+
+    private BinairoGame newSolver(String config) {
+        return new BinairoGame(SolverConfig.parse(config).toBuilder().timeLimitMs(timeLimitMs).build());
+    }
+
+    // --- I. CORPUS ---
+
+    /**
+     * Relit le corpus s'il existe ; il doit couvrir les tailles, densités et nombre de grilles
+     * demandés. Un fichier existant n'est jamais réécrit (les grilles mesurées ne doivent pas
+     * changer d'une version à l'autre) : le corpus n'est généré que dans un fichier absent.
+     */
+    private List<Group> loadOrBuildCorpus() throws IOException {
+        File file = new File(corpusFile);
+        if (file.exists()) {
+            List<Group> loaded = readCorpus(file);
+            if (!covers(loaded)) {
+                throw new IOException("Le corpus " + corpusFile + " ne couvre pas les tailles, densités ou le nombre"
+                        + " de grilles demandés ; --corpus <nouveau fichier> pour en générer un autre");
+            }
+            System.out.println("Corpus relu : " + corpusFile);
+            return select(loaded);
+        }
+
+        System.out.println("Génération du corpus (graine fixe) -> " + corpusFile);
+        List<Group> corpus = buildCorpus();
+        writeCorpus(file, corpus);
+        return corpus;
+    }
+
+    private boolean covers(List<Group> loaded) {
+        for (int n : sizes) {
+            for (double d : densities) {
+                Group g = find(loaded, n, d);
+                if (g == null || g.puzzles.size() < instances) return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Group> select(List<Group> loaded) {
+        List<Group> out = new ArrayList<>();
+        for (int n : sizes) {
+            for (double d : densities) {
+                Group g = find(loaded, n, d);
+                Group sub = new Group(n, d);
+                sub.puzzles.addAll(g.puzzles.subList(0, instances));
+                out.add(sub);
+            }
+        }
+        return out;
+    }
+
+    private static Group find(List<Group> groups, int n, double density) {
+        for (Group g : groups) {
+            if (g.n == n && Math.abs(g.density - density) < 1e-9) return g;
+        }
+        return null;
+    }
+
+    private List<Group> buildCorpus() {
+        List<Group> corpus = new ArrayList<>();
+        for (int n : sizes) {
+            // Même solution pour toutes les densités : seul le nombre d'indices varie
+            List<BinairoPosition> solutions = new ArrayList<>();
+            for (int i = 0; i < instances; i++) solutions.add(seededSolution(n, i));
+
+            for (double d : densities) {
+                Group g = new Group(n, d);
+                for (int i = 0; i < instances; i++) {
+                    g.puzzles.add(reveal(solutions.get(i), d, new Random(CORPUS_SEED * 31 + n * 1000 + i)));
+                }
+                corpus.add(g);
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * Grille complète aléatoire issue de la graine. Les temps de résolution d'une grille vide
+     * ont une queue lourde : on coupe chaque essai à un budget de nœuds (déterministe,
+     * contrairement à une limite de temps) et on passe à la graine suivante.
+     */
+    private static BinairoPosition seededSolution(int n, int index) {
+        BinairoGame g = new BinairoGame(SolverConfig.parse("mrv,fc").toBuilder().nodeLimit(50L * n * n).build());
+        long seed = CORPUS_SEED + n * 100_003L + index * 7919L;
+        while (true) {
+            g.random = new Random(seed++);
+            Position res = g.solve(new BinairoPosition(n));
+            if (res != null) return (BinairoPosition) res;
+        }
+    }
+
+    // Garde round(density * n²) cases de la solution, tirées au hasard
+    private static BinairoPosition reveal(BinairoPosition solution, double density, Random rnd) {
+        int n = solution.n;
+        int cells = n * n;
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++) order[i] = i;
+        for (int i = cells - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+
+        char[] line = new char[cells];
+        Arrays.fill(line, '.');
+        int clues = (int) Math.round(density * cells);
+        for (int k = 0; k < clues; k++) {
+            int cell = order[k];
+            line[cell] = (char) ('0' + solution.get(cell / n, cell % n));
+        }
+        return BinairoPosition.parse(new String(line));
+    }
+
+    private static List<Group> readCorpus(File file) throws IOException {
+        List<Group> groups = new ArrayList<>();
+        Group current = null;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                if (line.startsWith("#")) {
+                    // En-tête de groupe : "# n=<taille> density=<densité>"
+                    int n = -1;
+                    double d = -1;
+                    for (String tok : line.substring(1).trim().split("\\s+")) {
+                        if (tok.startsWith("n=")) n = Integer.parseInt(tok.substring(2));
+                        else if (tok.startsWith("density=")) d = Double.parseDouble(tok.substring(8));
+                    }
+                    current = n > 0 && d >= 0 ? new Group(n, d) : null;
+                    if (current != null) groups.add(current);
+                } else if (current != null) {
+                    current.puzzles.add(BinairoPosition.parse(line));
+                }
+            }
+        }
+        return groups;
+    }
+
+    private static void writeCorpus(File file, List<Group> corpus) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            for (Group g : corpus) {
+                out.println(String.format(Locale.ROOT, "# n=%d density=%.2f", g.n, g.density));
+                for (BinairoPosition p : g.puzzles) out.println(p.toLine());
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.StringJoiner;
+
+/**
+ * Configuration figée d'un solveur (heuristiques, propagation, limites). Immuable, donc
+ * partageable entre threads : un SharedSolver ou un worker l'applique à son propre moteur
+ * (CSPSolver.configure) au lieu de modifier les champs d'un solveur commun.
+ * Construction par Builder, ou depuis une liste "mrv,fc,cbj,..." (parse).
+ */
+public final class SolverConfig {
+
+    public final boolean useMRV;
+    public final boolean useDegree;
+    public final boolean useLCV;
+    public final boolean useFC;
+    public final boolean useAC3;
+    public final boolean useGAC;
+    public final boolean usePresolve;
+    public final boolean useDeduction;
+    public final boolean useTrail;
+    public final boolean useBackjumping;
+    public final boolean useIterative;
+    public final boolean useWdeg;
+    public final boolean useAdaptive;
+    public final boolean randomizeTies;
+    public final int restartStrategy;
+    public final long restartBase;
+    public final double restartFactor;
+    public final int nogoodCapacity;
+    public final int nogoodMaxLength;
+    public final Long timeLimitMs;
+    public final Long nodeLimit;
+    public final int checkInterval;
+    public final boolean metrics;       // Mesures détaillées (SolverMetrics) par résolution
+
+    private SolverConfig(Builder b) {
+        this.useMRV = b.useMRV;
+        this.useDegree = b.useDegree;
+        this.useLCV = b.useLCV;
+        this.useFC = b.useFC;
+        this.useAC3 = b.useAC3;
+        this.useGAC = b.useGAC;
+        this.usePresolve = b.usePresolve;
+        this.useDeduction = b.useDeduction;
+        this.useTrail = b.useTrail;
+        this.useBackjumping = b.useBackjumping;
+        this.useIterative = b.useIterative;
+        this.useWdeg = b.useWdeg;
+        this.useAdaptive = b.useAdaptive;
+        this.randomizeTies = b.randomizeTies;
+        this.restartStrategy = b.restartStrategy;
+        this.restartBase = b.restartBase;
+        this.restartFactor = b.restartFactor;
+        this.nogoodCapacity = b.nogoodCapacity;
+        this.nogoodMaxLength = b.nogoodMaxLength;
+        this.timeLimitMs = b.timeLimitMs;
+        this.nodeLimit = b.nodeLimit;
+        this.checkInterval = b.checkInterval;
+        this.metrics = b.metrics;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Builder pré-rempli avec cette configuration, pour en dériver une variante
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.useMRV = useMRV; b.useDegree = useDegree; b.useLCV = useLCV;
+        b.useFC = useFC; b.useAC3 = useAC3; b.useGAC = useGAC;
+        b.usePresolve = usePresolve; b.useDeduction = useDeduction;
+        b.useTrail = useTrail; b.useBackjumping = useBackjumping; b.useIterative = useIterative;
+        b.useWdeg = useWdeg; b.useAdaptive = useAdaptive; b.randomizeTies = randomizeTies;
+        b.restartStrategy = restartStrategy; b.restartBase = restartBase; b.restartFactor = restartFactor;
+        b.nogoodCapacity = nogoodCapacity; b.nogoodMaxLength = nogoodMaxLength;
+        b.timeLimitMs = timeLimitMs; b.nodeLimit = nodeLimit; b.checkInterval = checkInterval;
+        b.metrics = metrics;
+        return b;
+    }
+
+    /**
+     * Configuration depuis une liste d'heuristiques (format de BatchSolver et SolverBenchmark) :
+     * mrv, degree, lcv, fc, ac3, gac, adaptive, presolve, deduce, cbj, wdeg, luby, geom ; les autres
+     * réglages gardent leur valeur par défaut.
+     */
+    public static SolverConfig parse(String heuristics) {
+        Builder b = builder();
+        for (String token : heuristics.toLowerCase().split(",")) {
+            switch (token.trim()) {
+                case "mrv":      b.useMRV = true; break;
+                case "degree":   b.useDegree = true; break;
+                case "lcv":      b.useLCV = true; break;
+                case "fc":       b.useFC = true; break;
+                case "ac3":      b.useAC3 = true; break;
+                case "gac":      b.useGAC = true; break;
+                case "adaptive": b.useAdaptive = true; break;
+                case "presolve": b.usePresolve = true; break;
+                case "deduce":   b.useDeduction = true; break;
+                case "cbj":      b.useBackjumping = true; break;
+                case "wdeg":     b.useWdeg = true; break;
+                case "luby":     b.restartStrategy = CSPSolver.RESTART_LUBY; break;
+                case "geom":     b.restartStrategy = CSPSolver.RESTART_GEOMETRIC; break;
+                case "":         break;
+                default:
+                    throw new IllegalArgumentException("Heuristique inconnue : " + token);
+            }
+        }
+        return b.build();
+    }
+
+    // Liste d'heuristiques relue par parse (les autres réglages ne sont pas repris)
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(",");
+        if (useMRV) sj.add("mrv");
+        if (useDegree) sj.add("degree");
+        if (useLCV) sj.add("lcv");
+        if (useFC) sj.add("fc");
+        if (useAC3) sj.add("ac3");
+        if (useGAC) sj.add("gac");
+        if (useAdaptive) sj.add("adaptive");
+        if (usePresolve) sj.add("presolve");
+        if (useDeduction) sj.add("deduce");
+        if (useBackjumping) sj.add("cbj");
+        if (useWdeg) sj.add("wdeg");
+        if (restartStrategy == CSPSolver.RESTART_LUBY) sj.add("luby");
+        if (restartStrategy == CSPSolver.RESTART_GEOMETRIC) sj.add("geom");
+        return sj.toString();
+    }
+
+    /**
+     * Réglages modifiables avant build(). Valeurs par défaut = celles des champs de CSPSolver.
+     */
+    public static final class Builder {
+        private boolean useMRV, useDegree, useLCV, useFC, useAC3, useGAC;
+        private boolean usePresolve, useDeduction, useBackjumping, useWdeg, useAdaptive, randomizeTies;
+        private boolean useTrail = true;
+        private boolean useIterative = true;
+        private int restartStrategy = CSPSolver.RESTART_NONE;
+        private long restartBase = 256;
+        private double restartFactor = 1.5;
+        private int nogoodCapacity = 256;
+        private int nogoodMaxLength = 12;
+        private Long timeLimitMs = null;
+        private Long nodeLimit = null;
+        private int checkInterval = 256;
+        private boolean metrics;
+
+        private Builder() {
+        }
+
+        public Builder mrv(boolean v) { useMRV = v; return this; }
+        public Builder degree(boolean v) { useDegree = v; return this; }
+        public Builder lcv(boolean v) { useLCV = v; return this; }
+        public Builder fc(boolean v) { useFC = v; return this; }
+        public Builder ac3(boolean v) { useAC3 = v; return this; }
+        public Builder gac(boolean v) { useGAC = v; return this; }
+        public Builder presolve(boolean v) { usePresolve = v; return this; }
+        public Builder deduction(boolean v) { useDeduction = v; return this; }
+        public Builder trail(boolean v) { useTrail = v; return this; }
+        public Builder backjumping(boolean v) { useBackjumping = v; return this; }
+        public Builder iterative(boolean v) { useIterative = v; return this; }
+        public Builder wdeg(boolean v) { useWdeg = v; return this; }
+        public Builder adaptive(boolean v) { useAdaptive = v; return this; }
+        public Builder randomizeTies(boolean v) { randomizeTies = v; return this; }
+        public Builder restarts(int strategy, long base) { restartStrategy = strategy; restartBase = base; return this; }
+        public Builder restartFactor(double v) { restartFactor = v; return this; }
+        public Builder nogoods(int capacity, int maxLength) { nogoodCapacity = capacity; nogoodMaxLength = maxLength; return this; }
+        public Builder timeLimitMs(Long v) { timeLimitMs = v; return this; }
+        public Builder nodeLimit(Long v) { nodeLimit = v; return this; }
+        public Builder checkInterval(int v) { checkInterval = v; return this; }
+        public Builder metrics(boolean v) { metrics = v; return this; }
+
+        public SolverConfig build() {
+            return new SolverConfig(this);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.Arrays;
+
+/**
+ * Mesures détaillées d'une recherche : temps par phase (System.nanoTime), retours arrière,
+ * domaines vidés, valeurs élaguées par FC, AC-3 et GAC, cases posées par déduction, sauts du
+ * retour arrière dirigé par les conflits, nogoods appris, profondeur maximale et histogramme des
+ * nœuds par profondeur.
+ *
+ * Désactivé par défaut : le solveur ne fait qu'un test 'metrics != null' par point de mesure.
+ * Activation : solver.metrics = new SolverMetrics(); puis solver.metrics.snapshot() après
+ * solve ou countSolutions (remis à zéro au début de chaque recherche). La recherche parallèle
+ * n'est pas instrumentée.
+ */
+public class SolverMetrics {
+
+    // Phases chronométrées
+    public static final int SELECT = 0;     // selectVariable
+    public static final int ORDER = 1;      // orderDomainValues
+    public static final int VALIDATE = 2;   // isValid
+    public static final int APPLY = 3;      // application du coup et annulation
+    public static final int INFERENCE = 4;  // runInference (FC, AC-3 ou GAC)
+    public static final int COMPLETE = 5;   // isComplete
+    public static final String[] PHASE_NAMES = {"select", "order", "validate", "apply", "inference", "complete"};
+
+    // Propagations distinguées dans le décompte des valeurs élaguées
+    public static final int FC = 0;
+    public static final int AC3 = 1;
+    public static final int GAC = 2;
+
+    private final long[] phaseNanos = new long[PHASE_NAMES.length];
+    private long backtracks;
+    private long wipeouts;
+    private long fcPrunes;
+    private long ac3Prunes;
+    private long gacPrunes;
+    private long deductions;
+    private long backjumps;
+    private long nogoods;
+    private long restarts;
+    private int maxDepth;
+    private long[] depthHistogram = new long[64];
+
+    // Profondeur courante, tenue par le solveur autour de l'appel récursif
+    int depth;
+    // Valeurs retirées depuis le début de la recherche, attribuées à FC, AC-3 ou GAC par endInference
+    long prunes;
+
+    public void reset() {
+        Arrays.fill(phaseNanos, 0);
+        backtracks = wipeouts = fcPrunes = ac3Prunes = gacPrunes = deductions = backjumps = nogoods = restarts = prunes = 0;
+        maxDepth = depth = 0;
+        Arrays.fill(depthHistogram, 0);
+    }
+
+    // Ajoute le temps écoulé depuis 'start' à la phase et renvoie l'instant courant
+    long phase(int phase, long start) {
+        long now = System.nanoTime();
+        phaseNanos[phase] += now - start;
+        return now;
+    }
+
+    void node() {
+        if (depth >= depthHistogram.length) {
+            depthHistogram = Arrays.copyOf(depthHistogram, Math.max(depth + 1, depthHistogram.length * 2));
+        }
+        depthHistogram[depth]++;
+        if (depth > maxDepth) maxDepth = depth;
+    }
+
+    void backtrack() {
+        backtracks++;
+    }
+
+    void prune() {
+        prunes++;
+    }
+
+    void deduced() {
+        deductions++;
+    }
+
+    void backjump() {
+        backjumps++;
+    }
+
+    void learned() {
+        nogoods++;
+    }
+
+    void restart() {
+        restarts++;
+    }
+
+    // Clôt un appel de runInference commencé à 'start' avec 'prunesBefore' valeurs retirées
+    void endInference(int inference, long start, long prunesBefore, boolean consistent) {
+        phase(INFERENCE, start);
+        long pruned = prunes - prunesBefore;
+        if (inference == GAC) gacPrunes += pruned;
+        else if (inference == AC3) ac3Prunes += pruned;
+        else fcPrunes += pruned;
+        if (!consistent) wipeouts++;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Copie figée des mesures, exportable (toString lisible, champs publics en lecture seule).
+     */
+    public static final class Snapshot {
+        public final long[] phaseNanos;
+        public final long backtracks;
+        public final long wipeouts;
+        public final long fcPrunes;
+        public final long ac3Prunes;
+        public final long gacPrunes;
+        public final long deductions;       // cases posées par la déduction par règles
+        public final long backjumps;        // retours arrière qui ont sauté au moins un niveau
+        public final long nogoods;          // nogoods appris
+        public final long restarts;         // redémarrages (budget de nœuds d'un essai épuisé)
+        public final int maxDepth;
+        public final long[] depthHistogram; // nœuds visités à chaque profondeur, 0..maxDepth
+
+        private Snapshot(SolverMetrics m) {
+            this.phaseNanos = m.phaseNanos.clone();
+            this.backtracks = m.backtracks;
+            this.wipeouts = m.wipeouts;
+            this.fcPrunes = m.fcPrunes;
+            this.ac3Prunes = m.ac3Prunes;
+            this.gacPrunes = m.gacPrunes;
+            this.deductions = m.deductions;
+            this.backjumps = m.backjumps;
+            this.nogoods = m.nogoods;
+            this.restarts = m.restarts;
+            this.maxDepth = m.maxDepth;
+            this.depthHistogram = Arrays.copyOf(m.depthHistogram, m.maxDepth + 1);
+        }
+
+        public long phaseNanos(int phase) {
+            return phaseNanos[phase];
+        }
+
+        public long totalNanos() {
+            long sum = 0;
+            for (long t : phaseNanos) sum += t;
+            return sum;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            long total = Math.max(1, totalNanos());
+            sb.append("Phases (ms) :");
+            for (int i = 0; i < phaseNanos.length; i++) {
+                sb.append(String.format(" %s=%.3f (%.0f%%)", PHASE_NAMES[i], phaseNanos[i] / 1e6, 100.0 * phaseNanos[i] / total));
+            }
+            sb.append("\nRetours arrière : ").append(backtracks)
+              .append(", domaines vidés : ").append(wipeouts)
+              .append(", élagages FC : ").append(fcPrunes)
+              .append(", élagages AC-3 : ").append(ac3Prunes)
+              .append(", élagages GAC : ").append(gacPrunes)
+              .append(", cases déduites : ").append(deductions)
+              .append(", sauts : ").append(backjumps)
+              .append(", nogoods appris : ").append(nogoods)
+              .append(", redémarrages : ").append(restarts)
+              .append(", profondeur max : ").append(maxDepth);
+            sb.append("\nNœuds par profondeur : ").append(Arrays.toString(depthHistogram));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serveur local de résolution : une JVM longue durée (JIT et solveurs chauds) au lieu d'un
+ * lancement par grille. Protocole texte sur socket, une requête par ligne :
+ *   <grille au format compact>  ->  <solution | NO_SOLUTION | TIMEOUT | CANCELLED | ERROR message> nodes=<nœuds> ms=<temps>
+ *   STATS                       ->  STATS requests=... queue=... cache_hits=... p50_us=... p99_us=... [portfolio_wins=...]
+ *   QUIT                        ->  fin de connexion après les réponses en attente
+ * Les requêtes peuvent être enchaînées sans attendre (réponses dans l'ordre d'envoi). Un
+ * client qui ferme la connexion abandonne ses grilles : celles en file sont sautées, celle en
+ * cours de résolution est annulée.
+ *
+ * Un thread par connexion (virtuel si la JVM en fournit, Java 21+), qui ne fait que lire et
+ * écrire. Les grilles passent par une file bornée vers un pool fixe de workers, un par cœur,
+ * chacun avec son solveur ; un worker vide la file par lots (micro-batching) pour amortir
+ * les réveils. File pleine : le lecteur bloque, le client est freiné par TCP (contre-pression).
+ *
+ * Avec --portfolio, chaque worker court le portefeuille par défaut (PortfolioSolver) au lieu
+ * d'une seule configuration : la queue des latences ne dépend plus de la malchance d'une
+ * configuration. STATS compte alors les victoires de chaque membre. Chaque course occupe un
+ * thread par membre : --threads est alors divisé par le nombre de membres.
+ *
+ * Usage : java SolverServer [--port N] [--threads N] [--heuristics mrv,fc,...] [--timeout ms]
+ *                           [--queue N] [--batch N] [--inflight N] [--cache N] [--portfolio]
+ */
+public class SolverServer {
+
+    private int port = 7345;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String heuristics = "mrv,fc";
+    private Long timeLimitMs = 10_000L;
+    private int queueSize = 1024;        // Grilles en attente d'un worker, tous clients confondus
+    private int batchSize = 16;          // Grilles prises d'un coup par un worker
+    private int maxInFlight = 64;        // Réponses en attente par connexion
+    private int cacheSize = 4096;        // Solutions gardées (à symétrie près), partagées par les workers ; 0 = aucun cache
+    private boolean portfolio = false;   // Course de configurations par grille (--heuristics ignoré)
+
+    private BlockingQueue<Request> work;
+    private SolutionCache cache;
+    private SharedSolver solver;         // Configuration commune, un moteur par worker
+    private ServerSocket serverSocket;
+    private ExecutorService connectionPool;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    private boolean virtualThreads;
+
+    // --- STATISTIQUES ---
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong noSolution = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final ConcurrentHashMap<String, LongAdder> portfolioWins = new ConcurrentHashMap<>();
+    private final LatencyWindow latency = new LatencyWindow(4096);   // Réception -> réponse prête
+    private final LatencyWindow service = new LatencyWindow(4096);   // Résolution seule
+
+    // Marque de fin des réponses d'une connexion
+    private static final Request END = Request.done(null);
+
+    public static void main(String[] args) throws IOException {
+        SolverServer server = new SolverServer();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":       server.port = Integer.parseInt(args[++i]); break;
+                case "--threads":    server.threads = Integer.parseInt(args[++i]); break;
+                case "--heuristics": server.heuristics = args[++i].toLowerCase(); break;
+                case "--timeout":    server.timeLimitMs = Long.parseLong(args[++i]); break;
+                case "--queue":      server.queueSize = Integer.parseInt(args[++i]); break;
+                case "--batch":      server.batchSize = Integer.parseInt(args[++i]); break;
+                case "--inflight":   server.maxInFlight = Integer.parseInt(args[++i]); break;
+                case "--cache":      server.cacheSize = Integer.parseInt(args[++i]); break;
+                case "--portfolio":  server.portfolio = true; break;
+                default:
+                    System.err.println("Option inconnue : " + args[i]);
+                    System.exit(2);
+            }
+        }
+        int bound = server.start();
+        System.err.println("SolverServer en écoute sur 127.0.0.1:" + bound + " (" + server.threads + " workers, "
+                + (server.virtualThreads ? "threads virtuels" : "threads classiques") + " par connexion)");
+        server.serve();
+    }
+
+    /**
+     * Ouvre le socket (port 0 : port libre choisi par le système) et démarre les workers.
+     * Retourne le port d'écoute.
+     */
+    public int start() throws IOException {
+        work = new ArrayBlockingQueue<>(queueSize);
+        cache = cacheSize > 0 ? new SolutionCache(cacheSize) : null;
+        solver = new SharedSolver(SolverConfig.parse(heuristics).toBuilder().timeLimitMs(timeLimitMs).build(), cache);
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        connectionPool = newConnectionPool();
+        running = true;
+        if (portfolio) threads = PortfolioSolver.racesFor(threads, PortfolioSolver.defaultConfigs(timeLimitMs).size());
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::workerLoop, "solver-" + i);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+        return serverSocket.getLocalPort();
+    }
+
+    // Boucle d'acceptation, jusqu'à stop()
+    public void serve() throws IOException {
+        try {
+            while (running) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    if (!running) break;
+                    throw e;
+                }
+                socket.setTcpNoDelay(true);
+                connectionPool.execute(() -> handle(socket));
+            }
+        } finally {
+            stop();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        connectionPool.shutdownNow();
+        for (Thread t : workers) t.interrupt();
+    }
+
+    // Un thread virtuel par tâche si disponible (Java 21+, appelé par réflexion pour compiler
+    // en Java 8), sinon un pool de threads classiques
+    private ExecutorService newConnectionPool() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService pool = (ExecutorService) m.invoke(null);
+            virtualThreads = true;
+            return pool;
+        } catch (ReflectiveOperationException e) {
+            virtualThreads = false;
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "solver-connection");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // =========================================================================
+    // CONNEXIONS
+    // =========================================================================
+
+    // Lecture des requêtes ; un second thread écrit les réponses dans l'ordre
+    private void handle(Socket socket) {
+        connections.incrementAndGet();
+        BlockingQueue<Request> pending = new ArrayBlockingQueue<>(maxInFlight);
+        // Drapeau d'annulation commun à toutes les grilles de la connexion
+        AtomicBoolean gone = new AtomicBoolean();
+        Future<?> writer = null;
+        boolean quit = false;
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 14);
+            writer = connectionPool.submit(() -> writeResponses(socket, out, pending, gone));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String text = line.trim();
+                if (text.isEmpty()) continue;
+                if (text.equalsIgnoreCase("QUIT")) {
+                    quit = true;
+                    break;
+                }
+                // put bloque si le client a trop de réponses en attente
+                pending.put(text.equalsIgnoreCase("STATS") ? Request.done(statsLine()) : submit(text, gone));
+            }
+        } catch (IOException e) {
+            // Connexion coupée : traitée comme une fermeture
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Client parti : ses grilles, en file ou en cours, ne sont plus attendues
+            if (!quit) gone.set(true);
+            try {
+                if (writer != null) {
+                    pending.put(END);
+                    writer.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+            }
+            closeQuietly(socket);
+            connections.decrementAndGet();
+        }
+    }
+
+    // Réponses dans l'ordre des requêtes ; vidage du tampon quand plus rien n'est prêt
+    private void writeResponses(Socket socket, Writer out, BlockingQueue<Request> pending, AtomicBoolean gone) {
+        boolean broken = false;
+        try {
+            while (true) {
+                Request r = pending.take();
+                if (r == END) break;
+                // Grille abandonnée : le worker la saute ou l'interrompt, inutile d'attendre
+                if (r.cancelled.get()) continue;
+                String response;
+                try {
+                    response = r.response.get();
+                } catch (ExecutionException e) {
+                    response = "ERROR " + e.getCause() + " nodes=0 ms=0";
+                }
+                try {
+                    out.write(response);
+                    out.write('\n');
+                    if (pending.isEmpty()) out.flush();
+                } catch (IOException e) {
+                    // Écriture impossible : on annule le reste et on débloque le lecteur
+                    broken = true;
+                    gone.set(true);
+                    closeQuietly(socket);
+                }
+            }
+            if (!broken) out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Grille lue ou erreur de format ; la grille part dans la file des workers
+    private Request submit(String text, AtomicBoolean cancelled) throws InterruptedException {
+        requests.incrementAndGet();
+        BinairoPosition pos;
+        try {
+            pos = BinairoPosition.parse(text);
+        } catch (IllegalArgumentException e) {
+            errors.incrementAndGet();
+            return Request.done("ERROR " + e.getMessage() + " nodes=0 ms=0");
+        }
+        Request r = new Request(pos, cancelled);
+        work.put(r);
+        return r;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // =========================================================================
+    // WORKERS
+    // =========================================================================
+
+    // Le moteur du worker (SharedSolver) est gardé pour toute la vie du serveur
+    private void workerLoop() {
+        PortfolioSolver race = portfolio
+                ? new PortfolioSolver(PortfolioSolver.defaultConfigs(timeLimitMs), System.nanoTime(), cache) : null;
+        List<Request> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                batch.add(work.take());
+                work.drainTo(batch, batchSize - 1);
+                batches.incrementAndGet();
+                for (Request r : batch) solve(r, race);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Arrêt du serveur
+        } finally {
+            if (race != null) race.close();
+        }
+    }
+
+    private void solve(Request r, PortfolioSolver race) {
+        if (r.cancelled.get()) {
+            cancelledCount.incrementAndGet();
+            r.response.complete("CANCELLED nodes=0 ms=0");
+            return;
+        }
+        long t0 = System.nanoTime();
+        String status;
+        long nodes = 0;
+        try {
+            // Le drapeau de la requête est relu par le solveur tous les checkInterval nœuds
+            SolveResult res;
+            if (race != null) {
+                PortfolioSolver.Result won = race.solve(r.position, r.cancelled);
+                res = won.result;
+                if (won.winner >= 0) portfolioWins.computeIfAbsent(won.winnerName(), k -> new LongAdder()).increment();
+            } else {
+                res = solver.solve(r.position, r.cancelled);
+            }
+            nodes = res.nodeCount;
+            if (res.solution != null) {
+                status = ((BinairoPosition) res.solution).toLine();
+                solved.incrementAndGet();
+            } else if (!res.interrupted) {
+                status = "NO_SOLUTION";
+                noSolution.incrementAndGet();
+            } else if (res.cancelled) {
+                status = "CANCELLED";
+                cancelledCount.incrementAndGet();
+            } else {
+                status = "TIMEOUT";
+                timeouts.incrementAndGet();
+            }
+        } catch (Throwable e) {
+            // Error compris (pile épuisée par le moteur récursif, mémoire) : la réponse doit
+            // être complétée, sinon la connexion attend indéfiniment et le worker est perdu
+            status = "ERROR " + e;
+            errors.incrementAndGet();
+        }
+        long end = System.nanoTime();
+        service.record((end - t0) / 1000);
+        latency.record((end - r.received) / 1000);
+        r.response.complete(status + " nodes=" + nodes + " ms=" + (end - t0) / 1_000_000);
+    }
+
+    // =========================================================================
+    // STATISTIQUES
+    // =========================================================================
+
+    public String statsLine() {
+        long[] lat = latency.percentiles(50, 99);
+        long[] svc = service.percentiles(50, 99);
+        long b = batches.get();
+        long handled = solved.get() + noSolution.get() + timeouts.get() + cancelledCount.get();
+        return "STATS requests=" + requests.get()
+                + " solved=" + solved.get()
+                + " no_solution=" + noSolution.get()
+                + " timeouts=" + timeouts.get()
+                + " cancelled=" + cancelledCount.get()
+                + " errors=" + errors.get()
+                + " queue=" + (work == null ? 0 : work.size())
+                + " connections=" + connections.get()
+                + " batches=" + b
+                + " cache_hits=" + (cache == null ? 0 : cache.hits())
+                + String.format(" avg_batch=%.2f", b == 0 ? 0.0 : (double) handled / b)
+                + " p50_us=" + lat[0] + " p99_us=" + lat[1]
+                + " solve_p50_us=" + svc[0] + " solve_p99_us=" + svc[1]
+                + (portfolio ? " portfolio_wins=" + formatWins() : "");
+    }
+
+    // Victoires par membre du portefeuille : "mrv,fc#0:12;wdeg,fc,luby#2:3"
+    private String formatWins() {
+        StringJoiner sj = new StringJoiner(";");
+        new TreeMap<>(portfolioWins).forEach((name, n) -> sj.add(name + ":" + n.sum()));
+        return sj.toString();
+    }
+
+    /**
+     * Fenêtre glissante des dernières latences (µs), tampon circulaire ; les centiles sont
+     * calculés à la demande sur une copie triée.
+     */
+    static final class LatencyWindow {
+        private final long[] values;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.values = new long[capacity];
+        }
+
+        synchronized void record(long micros) {
+            values[next] = micros;
+            next = (next + 1) % values.length;
+            if (size < values.length) size++;
+        }
+
+        long[] percentiles(int... ps) {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(values, size);
+            }
+            Arrays.sort(sorted);
+            long[] out = new long[ps.length];
+            if (sorted.length == 0) return out;
+            for (int i = 0; i < ps.length; i++) {
+                int rank = (int) Math.ceil(ps[i] / 100.0 * sorted.length) - 1;
+                out[i] = sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+            }
+            return out;
+        }
+    }
+
+    // Grille en attente : position, instant de réception, drapeau d'annulation (celui de la
+    // connexion), réponse future
+    static final class Request {
+        final BinairoPosition position;
+        final long received = System.nanoTime();
+        final AtomicBoolean cancelled;
+        final CompletableFuture<String> response = new CompletableFuture<>();
+
+        Request(BinairoPosition position, AtomicBoolean cancelled) {
+            this.position = position;
+            this.cancelled = cancelled;
+        }
+
+        // Réponse immédiate (STATS, erreur de format)
+        static Request done(String response) {
+            Request r = new Request(null, new AtomicBoolean());
+            r.response.complete(response);
+            return r;
+        }
+    }
+}